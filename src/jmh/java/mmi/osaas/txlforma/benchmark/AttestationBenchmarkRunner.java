@@ -0,0 +1,51 @@
+package mmi.osaas.txlforma.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AttestationBenchmarkRunner {
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        Path output = Paths.get(args.length > 0 ? args[0] : "target/jmh");
+        Files.createDirectories(output);
+        String benchmark = AttestationRenderBenchmark.class.getName() + ".render";
+
+        new Runner(options(benchmark, output.resolve("attestation-render.json"))
+                .threads(1)
+                .build()).run();
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(cores);
+        for (int threads : threadCounts) {
+            new Runner(options(benchmark, output.resolve("attestation-render-" + threads + "-threads.json"))
+                    .param("type", "SUCCES")
+                    .param("withLogo", "true")
+                    .param("compact", "true")
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+
+    private static ChainedOptionsBuilder options(String benchmark, Path result) {
+        return new OptionsBuilder()
+                .include(benchmark)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString());
+    }
+}
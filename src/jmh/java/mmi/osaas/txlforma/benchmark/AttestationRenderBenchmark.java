@@ -0,0 +1,106 @@
+package mmi.osaas.txlforma.benchmark;
+
+import mmi.osaas.txlforma.enums.AttestationType;
+import mmi.osaas.txlforma.model.Formation;
+import mmi.osaas.txlforma.model.Participation;
+import mmi.osaas.txlforma.model.Session;
+import mmi.osaas.txlforma.model.User;
+import mmi.osaas.txlforma.service.AttestationPdfRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttestationRenderBenchmark {
+
+    private static final String VERIFICATION_URL =
+            "https://txlforma.fr/api/attestations/verify?code=1.1.S.15.5.3q2-7wAAAAAAAAAAAAAAAA";
+
+    @Param({"PRESENCE", "SUCCES"})
+    public AttestationType type;
+
+    @Param({"true", "false"})
+    public boolean withLogo;
+
+    @Param({"true", "false"})
+    public boolean compact;
+
+    private Path directory;
+    private AttestationPdfRenderer renderer;
+    private Participation participation;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("attestation-benchmark");
+        Path logoPath = directory.resolve("logo.png");
+        if (withLogo) {
+            BufferedImage logo = new BufferedImage(600, 300, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = logo.createGraphics();
+            graphics.setColor(new Color(83, 242, 106));
+            graphics.fillRoundRect(0, 0, 600, 300, 60, 60);
+            graphics.dispose();
+            ImageIO.write(logo, "png", logoPath.toFile());
+        }
+        renderer = new AttestationPdfRenderer(logoPath.toString(), compact);
+
+        User user = User.builder().id(1L).firstname("Camille").lastname("Durand").build();
+        Formation formation = Formation.builder().id(1L).title("Gestion de projet agile et outils collaboratifs").build();
+        Session session = Session.builder()
+                .id(1L)
+                .formation(formation)
+                .startDate(LocalDate.of(2025, 3, 10))
+                .endDate(LocalDate.of(2025, 3, 14))
+                .location("Paris - Campus Nord, salle 204")
+                .build();
+        participation = Participation.builder().id(1L).user(user).session(session).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted((left, right) -> right.compareTo(left)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Output {
+        private Path file;
+
+        @Setup(Level.Trial)
+        public void setUp(AttestationRenderBenchmark benchmark) throws IOException {
+            file = Files.createTempFile(benchmark.directory, "attestation-", ".pdf");
+        }
+    }
+
+    @Benchmark
+    public Path render(Output output) throws IOException {
+        renderer.render(participation, type, 15.5, VERIFICATION_URL, output.file);
+        return output.file;
+    }
+}
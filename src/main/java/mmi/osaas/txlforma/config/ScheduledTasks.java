@@ -1,7 +1,10 @@
 package mmi.osaas.txlforma.config;
 
 import lombok.RequiredArgsConstructor;
+import mmi.osaas.txlforma.service.AttestationIntegrityScanner;
+import mmi.osaas.txlforma.service.AttestationRenderQueue;
 import mmi.osaas.txlforma.service.NoteService;
+import mmi.osaas.txlforma.service.WebhookInbox;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -10,11 +13,28 @@ import org.springframework.stereotype.Component;
 public class ScheduledTasks {
 
     private final NoteService noteService;
+    private final AttestationRenderQueue attestationRenderQueue;
+    private final AttestationIntegrityScanner attestationIntegrityScanner;
+    private final WebhookInbox webhookInbox;
 
     @Scheduled(cron = "0 0 2 * * ?")
     public void lockNotesPastDeadline() {
         noteService.lockNotesPastDeadline();
     }
-}
 
+    @Scheduled(initialDelayString = "${app.attestations.render-sweep-ms:300000}", fixedDelayString = "${app.attestations.render-sweep-ms:300000}")
+    public void resubmitPendingAttestations() {
+        attestationRenderQueue.resubmitPending();
+        attestationIntegrityScanner.retryUndelivered();
+    }
+
+    @Scheduled(cron = "${app.attestations.scan-cron:0 30 3 * * ?}")
+    public void scanAttestationFiles() {
+        attestationIntegrityScanner.scan();
+    }
 
+    @Scheduled(initialDelayString = "${app.webhooks.dispatch-ms:10000}", fixedDelayString = "${app.webhooks.dispatch-ms:10000}")
+    public void dispatchDueWebhookEvents() {
+        webhookInbox.dispatchDue();
+    }
+}
@@ -66,6 +66,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/sessions/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/files/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/participations/session/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/attestations/verify").permitAll()
 
                         // AUTHENTICATED 
                         .requestMatchers("/api/payments/**").authenticated()
@@ -0,0 +1,98 @@
+package mmi.osaas.txlforma.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mmi.osaas.txlforma.enums.PaiementStatus;
+import mmi.osaas.txlforma.enums.StatisticsTopic;
+import mmi.osaas.txlforma.event.StatisticsChangedEvent;
+import mmi.osaas.txlforma.model.Attestation;
+import mmi.osaas.txlforma.model.Note;
+import mmi.osaas.txlforma.model.Paiement;
+import mmi.osaas.txlforma.model.Participation;
+import mmi.osaas.txlforma.service.StatisticsRollupService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StatisticsRollupChangeListener implements PostCommitDeleteEventListener, PostCommitUpdateEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final StatisticsRollupService statisticsRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        try {
+            switch (event.getEntity()) {
+                case Participation participation -> {
+                    statisticsRollupService.forgetParticipation(participation);
+                    eventPublisher.publishEvent(new StatisticsChangedEvent(StatisticsTopic.PARTICIPATION));
+                }
+                case Attestation attestation -> {
+                    statisticsRollupService.forgetAttestation(attestation);
+                    eventPublisher.publishEvent(new StatisticsChangedEvent(StatisticsTopic.ATTESTATION));
+                }
+                case Note note -> {
+                    statisticsRollupService.forgetNote(note);
+                    eventPublisher.publishEvent(new StatisticsChangedEvent(StatisticsTopic.NOTE));
+                }
+                default -> {
+                }
+            }
+        } catch (Exception e) {
+            log.error("[StatisticsRollupChangeListener] Failed to update rollups after deleting {}", event.getId(), e);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Paiement paiement) || event.getOldState() == null) {
+            return;
+        }
+        int statusIndex = Arrays.asList(event.getPersister().getPropertyNames()).indexOf("status");
+        try {
+            statisticsRollupService.recordPaiementStatusChange(paiement, (PaiementStatus) event.getOldState()[statusIndex]);
+            eventPublisher.publishEvent(new StatisticsChangedEvent(StatisticsTopic.PAIEMENT));
+        } catch (Exception e) {
+            log.error("[StatisticsRollupChangeListener] Failed to update rollups after updating paiement {}", event.getId(), e);
+        }
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> entityClass = persister.getMappedClass();
+        return entityClass == Participation.class || entityClass == Attestation.class || entityClass == Note.class
+                || entityClass == Paiement.class;
+    }
+}
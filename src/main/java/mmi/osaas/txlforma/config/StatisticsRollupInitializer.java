@@ -0,0 +1,32 @@
+package mmi.osaas.txlforma.config;
+
+import lombok.extern.slf4j.Slf4j;
+import mmi.osaas.txlforma.repository.ParticipationRepository;
+import mmi.osaas.txlforma.repository.StatisticsRollupRepository;
+import mmi.osaas.txlforma.service.StatisticsRollupService;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+@Configuration
+@Slf4j
+public class StatisticsRollupInitializer {
+
+    @Bean
+    public CommandLineRunner rebuildStatisticsRollups(StatisticsRollupRepository statisticsRollupRepository,
+                                                      ParticipationRepository participationRepository,
+                                                      StatisticsRollupService statisticsRollupService) {
+        return args -> {
+            try {
+                if (statisticsRollupRepository.count() == 0 && participationRepository.count() > 0) {
+                    Map<String, Object> report = statisticsRollupService.rebuild();
+                    log.info("[StatisticsRollupInitializer] Statistics rollups rebuilt: {}", report);
+                }
+            } catch (Exception e) {
+                log.error("[StatisticsRollupInitializer] Failed to rebuild statistics rollups", e);
+            }
+        };
+    }
+}
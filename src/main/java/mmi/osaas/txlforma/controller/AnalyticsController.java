@@ -0,0 +1,35 @@
+package mmi.osaas.txlforma.controller;
+
+import lombok.RequiredArgsConstructor;
+import mmi.osaas.txlforma.service.ParticipationAnalyticsEngine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/statistics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(name = "app.analytics.enabled", havingValue = "true")
+public class AnalyticsController {
+
+    private final ParticipationAnalyticsEngine participationAnalyticsEngine;
+
+    @GetMapping("/query")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> query(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long formationId,
+            @RequestParam(required = false) Long sessionId,
+            @RequestParam(required = false) Long formateurId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        Map<String, Object> result = participationAnalyticsEngine.query(categoryId, formationId, sessionId, formateurId, startDate, endDate);
+        return ResponseEntity.ok(result);
+    }
+}
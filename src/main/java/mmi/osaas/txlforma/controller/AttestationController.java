@@ -2,16 +2,31 @@ package mmi.osaas.txlforma.controller;
 
 import lombok.RequiredArgsConstructor;
 import mmi.osaas.txlforma.dto.AttestationDTO;
+import mmi.osaas.txlforma.enums.AttestationType;
+import mmi.osaas.txlforma.enums.Role;
 import mmi.osaas.txlforma.model.Attestation;
 import mmi.osaas.txlforma.security.UserPrincipal;
+import mmi.osaas.txlforma.service.AttestationIntegrityScanner;
+import mmi.osaas.txlforma.service.AttestationPdfRenderer;
 import mmi.osaas.txlforma.service.AttestationService;
+import mmi.osaas.txlforma.service.AttestationSignatureService;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/attestations")
@@ -20,6 +35,16 @@ import java.util.List;
 public class AttestationController {
 
     private final AttestationService attestationService;
+    private final AttestationPdfRenderer attestationPdfRenderer;
+    private final AttestationIntegrityScanner attestationIntegrityScanner;
+    private final AttestationSignatureService attestationSignatureService;
+
+    @GetMapping("/verify")
+    public ResponseEntity<Map<String, Object>> verifyAttestation(@RequestParam String code) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePublic())
+                .body(attestationSignatureService.verify(code));
+    }
 
     @GetMapping("/generate/{participationId}")
     public ResponseEntity<Attestation> generateAttestation(
@@ -30,16 +55,112 @@ public class AttestationController {
     }
 
     @GetMapping("/download/{id}")
-    public ResponseEntity<byte[]> downloadAttestation(@PathVariable Long id) {
-        byte[] pdfBytes = attestationService.downloadAttestation(id);
-        
+    public ResponseEntity<Resource> downloadAttestation(@PathVariable Long id) {
+        Attestation attestation = attestationService.downloadAttestation(id);
+        Resource pdf = attestationService.openAttestation(attestation);
+        long contentLength;
+        long lastModified;
+        try {
+            contentLength = pdf.contentLength();
+            lastModified = pdf.lastModified();
+        } catch (IOException ioException) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Erreur lors de la lecture du fichier");
+        }
+
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", "attestation.pdf");
-        
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .eTag(attestation.getContentHash() != null
+                        ? attestation.getContentHash()
+                        : id + "-" + contentLength + "-" + lastModified)
+                .lastModified(lastModified)
+                .body(pdf);
+    }
+
+    @GetMapping("/session/{sessionId}/zip")
+    @PreAuthorize("hasAnyRole('FORMATEUR', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> downloadSessionArchive(
+            @PathVariable Long sessionId,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        Long formateurId = principal.getUser().getRole() == Role.FORMATEUR ? principal.getId() : null;
+        List<Attestation> attestations = attestationService.getSessionAttestations(sessionId, formateurId);
+        StreamingResponseBody archive = output -> attestationService.writeSessionArchive(attestations, output);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment", "attestations_session_" + sessionId + ".zip");
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(archive);
+    }
+
+    @GetMapping("/session/{sessionId}/book")
+    @PreAuthorize("hasAnyRole('FORMATEUR', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> downloadSessionBook(
+            @PathVariable Long sessionId,
+            @RequestParam(defaultValue = "PRESENCE") AttestationType type,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        Long formateurId = principal.getUser().getRole() == Role.FORMATEUR ? principal.getId() : null;
+        List<Attestation> attestations = attestationService.getSessionBookAttestations(sessionId, type, formateurId);
+        StreamingResponseBody book = output -> attestationService.writeSessionBook(sessionId, attestations, type, output);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "attestations_" + type + "_session_" + sessionId + ".pdf");
+
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(pdfBytes);
+                .body(book);
+    }
+
+    @PostMapping("/success/generate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> generateSuccessAttestations() {
+        String batchId = attestationService.submitSuccessAttestations("manual");
+        String reportUrl = "/api/attestations/success/batches/" + batchId;
+        return ResponseEntity.accepted()
+                .location(URI.create(reportUrl))
+                .body(Map.of("batchId", batchId, "report", reportUrl));
+    }
+
+    @GetMapping("/success/batches/{batchId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSuccessBatchReport(@PathVariable String batchId) {
+        return ResponseEntity.ok(attestationService.getSuccessBatchReport(batchId));
+    }
+
+    @GetMapping("/render-statistics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRenderStatistics() {
+        return ResponseEntity.ok(attestationPdfRenderer.getStatistics());
+    }
+
+    @GetMapping("/integrity")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getIntegrityReport() {
+        return ResponseEntity.ok(attestationIntegrityScanner.getLastReport());
+    }
+
+    @PostMapping("/integrity/scan")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> scanIntegrity() {
+        String scanId = attestationIntegrityScanner.submitScan();
+        String reportUrl = "/api/attestations/integrity/scans/" + scanId;
+        return ResponseEntity.accepted()
+                .location(URI.create(reportUrl))
+                .body(Map.of("scanId", scanId, "report", reportUrl));
+    }
+
+    @GetMapping("/integrity/scans/{scanId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getIntegrityScanReport(@PathVariable String scanId) {
+        return ResponseEntity.ok(attestationIntegrityScanner.getScanReport(scanId));
     }
 
     @GetMapping("/me")
@@ -3,7 +3,9 @@ package mmi.osaas.txlforma.controller;
 import lombok.RequiredArgsConstructor;
 import mmi.osaas.txlforma.security.UserPrincipal;
 import mmi.osaas.txlforma.service.PaiementService;
+import mmi.osaas.txlforma.service.WebhookInbox;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +21,7 @@ import java.util.Map;
 public class PaiementController {
 
     private final PaiementService paiementService;
+    private final WebhookInbox webhookInbox;
 
     @PostMapping("/create-checkout-session")
     public ResponseEntity<Map<String, String>> createCheckoutSession(
@@ -31,10 +34,23 @@ public class PaiementController {
     public ResponseEntity<?> handleWebhook(HttpServletRequest request) throws java.io.IOException {
         String payload = StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
         String signature = request.getHeader("Stripe-Signature");
-        paiementService.handleWebhook(payload, signature);
+        paiementService.receiveWebhook(payload, signature);
         return ResponseEntity.ok().build();
     }
 
+    @GetMapping("/webhook-events")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getWebhookEventStatistics() {
+        return ResponseEntity.ok(webhookInbox.getStatistics());
+    }
+
+    @PostMapping("/webhook-events/{id}/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> replayWebhookEvent(@PathVariable Long id) {
+        webhookInbox.replay(id);
+        return ResponseEntity.accepted().build();
+    }
+
     @PostMapping("/sync-checkout-session")
     public ResponseEntity<Map<String, String>> syncCheckoutSession(
             @RequestParam String sessionId,
@@ -1,13 +1,22 @@
 package mmi.osaas.txlforma.controller;
 
 import lombok.RequiredArgsConstructor;
+import mmi.osaas.txlforma.enums.StatisticsDimension;
+import mmi.osaas.txlforma.enums.StatisticsGranularity;
+import mmi.osaas.txlforma.enums.StatisticsMetric;
+import mmi.osaas.txlforma.enums.StatisticsTopic;
+import mmi.osaas.txlforma.service.GradeDistributionService;
+import mmi.osaas.txlforma.service.StatisticsCache;
+import mmi.osaas.txlforma.service.StatisticsRollupService;
 import mmi.osaas.txlforma.service.StatisticsService;
+import mmi.osaas.txlforma.service.UniqueLearnerService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 
@@ -18,27 +27,95 @@ import java.util.Map;
 public class StatisticsController {
 
     private final StatisticsService statisticsService;
+    private final StatisticsRollupService statisticsRollupService;
+    private final StatisticsCache statisticsCache;
+    private final GradeDistributionService gradeDistributionService;
+    private final UniqueLearnerService uniqueLearnerService;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> getGlobalStatistics(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        Map<String, Object> stats = statisticsService.getGlobalStatistics(startDate, endDate);
+        Map<String, Object> stats = statisticsCache.get("global:" + startDate + ":" + endDate,
+                EnumSet.of(StatisticsTopic.PAIEMENT, StatisticsTopic.PARTICIPATION, StatisticsTopic.ATTESTATION, StatisticsTopic.SESSION),
+                () -> statisticsService.getGlobalStatistics(startDate, endDate));
         return ResponseEntity.ok(stats);
     }
 
+    @GetMapping("/timeseries")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getTimeSeries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "DAY") StatisticsGranularity granularity) {
+        Map<String, Object> series = statisticsCache.get("timeseries:" + startDate + ":" + endDate + ":" + granularity,
+                EnumSet.of(StatisticsTopic.PAIEMENT, StatisticsTopic.PARTICIPATION, StatisticsTopic.ATTESTATION, StatisticsTopic.SESSION),
+                () -> statisticsService.getTimeSeries(startDate, endDate, granularity));
+        return ResponseEntity.ok(series);
+    }
+
+    @GetMapping("/funnel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getFunnel(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "MONTH") StatisticsGranularity granularity) {
+        Map<String, Object> funnel = statisticsService.getFunnel(startDate, endDate, granularity);
+        return ResponseEntity.ok(funnel);
+    }
+
+    @GetMapping("/grades")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getGradeDistribution(
+            @RequestParam(required = false) Long sessionId,
+            @RequestParam(required = false) Long formationId,
+            @RequestParam(required = false) Long formateurId) {
+        Map<String, Object> distribution = gradeDistributionService.getDistribution(sessionId, formationId, formateurId);
+        return ResponseEntity.ok(distribution);
+    }
+
+    @GetMapping("/unique-learners")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> countUniqueLearners(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long formationId,
+            @RequestParam(defaultValue = "false") boolean exact) {
+        Map<String, Object> result = uniqueLearnerService.countUniqueLearners(startDate, endDate, categoryId, formationId, exact);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/top")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getTop(
+            @RequestParam(defaultValue = "FORMATION") StatisticsDimension dimension,
+            @RequestParam(defaultValue = "REVENUE") StatisticsMetric metric,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        Map<String, Object> top = statisticsCache.get("top:" + dimension + ":" + metric + ":" + limit + ":" + startDate + ":" + endDate,
+                EnumSet.of(StatisticsTopic.PAIEMENT, StatisticsTopic.PARTICIPATION, StatisticsTopic.ATTESTATION, StatisticsTopic.SESSION),
+                () -> statisticsService.getTop(dimension, metric, limit, startDate, endDate));
+        return ResponseEntity.ok(top);
+    }
+
     @GetMapping("/formateurs")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<Map<String, Object>>> getAllFormateursStatistics() {
-        List<Map<String, Object>> stats = statisticsService.getAllFormateursStatistics();
+        List<Map<String, Object>> stats = statisticsCache.get("formateurs",
+                EnumSet.allOf(StatisticsTopic.class),
+                statisticsService::getAllFormateursStatistics);
         return ResponseEntity.ok(stats);
     }
 
     @GetMapping("/formateurs/{formateurId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> getFormateurStatistics(@PathVariable Long formateurId) {
-        Map<String, Object> stats = statisticsService.getFormateurStatistics(formateurId);
+        Map<String, Object> stats = statisticsCache.get("formateurs:" + formateurId,
+                EnumSet.allOf(StatisticsTopic.class),
+                () -> statisticsService.getFormateurStatistics(formateurId));
         return ResponseEntity.ok(stats);
     }
 
@@ -48,5 +125,25 @@ public class StatisticsController {
         Map<String, Object> details = statisticsService.getSessionDetails(sessionId);
         return ResponseEntity.ok(details);
     }
-}
 
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildRollups() {
+        Map<String, Object> report = statisticsRollupService.rebuild();
+        statisticsCache.invalidateAll();
+        return ResponseEntity.ok(report);
+    }
+
+    @GetMapping("/rollups/check")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> checkRollups() {
+        Map<String, Object> report = statisticsRollupService.check();
+        return ResponseEntity.ok(report);
+    }
+
+    @GetMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        return ResponseEntity.ok(statisticsCache.getStatistics());
+    }
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import mmi.osaas.txlforma.enums.AttestationStatus;
 import mmi.osaas.txlforma.enums.AttestationType;
 
 import java.time.LocalDate;
@@ -17,6 +18,7 @@ import java.time.LocalTime;
 public class AttestationDTO {
     private Long id;
     private AttestationType type;
+    private AttestationStatus status;
     private LocalDateTime generatedAt;
     private Long participationId;
     private String userFirstname;
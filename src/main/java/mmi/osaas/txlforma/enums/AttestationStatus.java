@@ -0,0 +1,8 @@
+package mmi.osaas.txlforma.enums;
+
+public enum AttestationStatus {
+    PENDING,
+    RENDERING,
+    READY,
+    FAILED
+}
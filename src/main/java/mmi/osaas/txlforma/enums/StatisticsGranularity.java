@@ -0,0 +1,7 @@
+package mmi.osaas.txlforma.enums;
+
+public enum StatisticsGranularity {
+    DAY,
+    WEEK,
+    MONTH
+}
@@ -0,0 +1,7 @@
+package mmi.osaas.txlforma.enums;
+
+public enum StatisticsMetric {
+    REVENUE,
+    OCCUPANCY,
+    SUCCESS_RATE
+}
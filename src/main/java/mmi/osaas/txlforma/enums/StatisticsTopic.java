@@ -0,0 +1,9 @@
+package mmi.osaas.txlforma.enums;
+
+public enum StatisticsTopic {
+    PAIEMENT,
+    PARTICIPATION,
+    ATTESTATION,
+    NOTE,
+    SESSION
+}
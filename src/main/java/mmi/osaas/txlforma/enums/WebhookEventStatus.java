@@ -0,0 +1,8 @@
+package mmi.osaas.txlforma.enums;
+
+public enum WebhookEventStatus {
+    PENDING,
+    PROCESSING,
+    PROCESSED,
+    DEAD
+}
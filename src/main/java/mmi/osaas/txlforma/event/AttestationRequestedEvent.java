@@ -0,0 +1,10 @@
+package mmi.osaas.txlforma.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class AttestationRequestedEvent {
+    private Long attestationId;
+}
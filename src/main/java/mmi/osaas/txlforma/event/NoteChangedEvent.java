@@ -0,0 +1,12 @@
+package mmi.osaas.txlforma.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class NoteChangedEvent {
+    private Long noteId;
+    private Long sessionId;
+    private Double note;
+}
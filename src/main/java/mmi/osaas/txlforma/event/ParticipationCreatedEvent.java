@@ -0,0 +1,14 @@
+package mmi.osaas.txlforma.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class ParticipationCreatedEvent {
+    private Long formationId;
+    private Long userId;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,11 @@
+package mmi.osaas.txlforma.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import mmi.osaas.txlforma.enums.StatisticsTopic;
+
+@Data
+@AllArgsConstructor
+public class StatisticsChangedEvent {
+    private StatisticsTopic topic;
+}
@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import mmi.osaas.txlforma.enums.AttestationStatus;
 import mmi.osaas.txlforma.enums.AttestationType;
 
 import java.time.LocalDateTime;
@@ -34,6 +35,13 @@ public class Attestation {
     @Column(name = "file_path", nullable = false)
     private String filePath;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private AttestationStatus status = AttestationStatus.READY;
+
     @Column(name = "generated_at", nullable = false, updatable = false)
     private LocalDateTime generatedAt;
 }
@@ -48,6 +48,12 @@ public class Participation {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @Column(name = "note")
     private Double note;
+
+    @Column(name = "amount_paid")
+    private Double amountPaid;
 }
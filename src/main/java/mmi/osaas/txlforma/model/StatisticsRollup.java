@@ -0,0 +1,54 @@
+package mmi.osaas.txlforma.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "statistics_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"session_id", "stat_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatisticsRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "session_id", nullable = false)
+    private Session session;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long participants = 0L;
+
+    @Column(name = "presence_attestations", nullable = false)
+    @Builder.Default
+    private Long presenceAttestations = 0L;
+
+    @Column(name = "success_attestations", nullable = false)
+    @Builder.Default
+    private Long successAttestations = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long notes = 0L;
+
+    @Column(name = "note_sum", nullable = false)
+    @Builder.Default
+    private Double noteSum = 0.0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Double revenue = 0.0;
+}
@@ -0,0 +1,56 @@
+package mmi.osaas.txlforma.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import mmi.osaas.txlforma.enums.WebhookEventStatus;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "webhook_events",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"event_id"}),
+       indexes = @Index(name = "idx_webhook_events_status_next_attempt", columnList = "status, next_attempt_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false)
+    private String eventId;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false, length = 500)
+    private String signature;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WebhookEventStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "received_at", nullable = false, updatable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
@@ -1,17 +1,74 @@
 package mmi.osaas.txlforma.repository;
 
+import mmi.osaas.txlforma.dto.AttestationDTO;
+import mmi.osaas.txlforma.enums.AttestationStatus;
 import mmi.osaas.txlforma.enums.AttestationType;
 import mmi.osaas.txlforma.model.Attestation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AttestationRepository extends JpaRepository<Attestation, Long> {
-    List<Attestation> findByParticipationUserId(Long userId);
+    @Query("SELECT new mmi.osaas.txlforma.dto.AttestationDTO(attestation.id, attestation.type, " +
+           "COALESCE(attestation.status, mmi.osaas.txlforma.enums.AttestationStatus.READY), attestation.generatedAt, " +
+           "participation.id, user.firstname, user.lastname, formation.title, session.startDate, session.startTime, " +
+           "note.note) " +
+           "FROM Attestation attestation " +
+           "JOIN attestation.participation participation " +
+           "JOIN participation.user user " +
+           "JOIN participation.session session " +
+           "JOIN session.formation formation " +
+           "LEFT JOIN Note note ON note.participation = participation " +
+           "AND attestation.type = mmi.osaas.txlforma.enums.AttestationType.SUCCES " +
+           "WHERE user.id = :userId")
+    List<AttestationDTO> findDTOsByUserId(@Param("userId") Long userId);
     List<Attestation> findByParticipationId(Long participationId);
     Optional<Attestation> findByParticipationIdAndType(Long participationId, AttestationType type);
+
+    @Query("SELECT attestation FROM Attestation attestation " +
+           "WHERE attestation.participation.session.id = :sessionId")
+    List<Attestation> findByParticipationSessionId(@Param("sessionId") Long sessionId);
+
+    @Query("SELECT attestation.id FROM Attestation attestation " +
+           "WHERE attestation.status = :status ORDER BY attestation.id")
+    List<Long> findIdsByStatus(@Param("status") AttestationStatus status);
+
+    @Modifying
+    @Query("UPDATE Attestation attestation " +
+           "SET attestation.contentHash = :contentHash, attestation.filePath = :filePath, attestation.status = :status " +
+           "WHERE attestation.id = :id AND attestation.status = :expectedStatus")
+    int updateStoredContent(@Param("id") Long id, @Param("contentHash") String contentHash,
+                            @Param("filePath") String filePath, @Param("expectedStatus") AttestationStatus expectedStatus,
+                            @Param("status") AttestationStatus status);
+
+    @Modifying
+    @Query("UPDATE Attestation attestation SET attestation.status = :status " +
+           "WHERE attestation.id IN :ids AND attestation.status = :expectedStatus")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("expectedStatus") AttestationStatus expectedStatus,
+                           @Param("status") AttestationStatus status);
+
+    @Modifying
+    @Query("UPDATE Attestation attestation SET attestation.status = :status " +
+           "WHERE attestation.status = :expectedStatus AND attestation.generatedAt < :before")
+    int updateStatusGeneratedBefore(@Param("expectedStatus") AttestationStatus expectedStatus,
+                                    @Param("status") AttestationStatus status,
+                                    @Param("before") LocalDateTime before);
+
+    boolean existsByContentHash(String contentHash);
+
+    @Query("SELECT attestation.id, attestation.filePath, attestation.contentHash, attestation.status " +
+           "FROM Attestation attestation " +
+           "WHERE attestation.id > :afterId " +
+           "ORDER BY attestation.id")
+    List<Object[]> findScanRowsAfterId(@Param("afterId") Long afterId, Pageable pageable);
 }
 
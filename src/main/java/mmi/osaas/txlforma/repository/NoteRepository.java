@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,5 +33,12 @@ public interface NoteRepository extends JpaRepository<Note, Long> {
            "JOIN FETCH note.givenBy " +
            "WHERE participation.user.id = :userId")
     List<Note> findByParticipationUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT note.participation.id, note.note FROM Note note " +
+           "WHERE note.createdAt >= :since OR note.modifiedAt >= :since")
+    List<Object[]> findGradesChangedSince(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT note.id, note.participation.session.id, note.note FROM Note note")
+    List<Object[]> findGradeRows();
 }
 
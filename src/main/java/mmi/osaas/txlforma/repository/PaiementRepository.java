@@ -1,13 +1,34 @@
 package mmi.osaas.txlforma.repository;
 
+import mmi.osaas.txlforma.enums.PaiementStatus;
 import mmi.osaas.txlforma.model.Paiement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PaiementRepository extends JpaRepository<Paiement, Long> {
     Optional<Paiement> findByPaymentIntentId(String paymentIntentId);
-}
 
+    @Query("SELECT COALESCE(SUM(paiement.amount), 0) FROM Paiement paiement " +
+           "WHERE paiement.status = :status " +
+           "AND (:from IS NULL OR paiement.createdAt >= :from) " +
+           "AND (:to IS NULL OR paiement.createdAt < :to)")
+    double sumAmountByStatusAndCreatedAtBetween(@Param("status") PaiementStatus status,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+
+    @Query("SELECT extract(date from paiement.createdAt), SUM(paiement.amount) FROM Paiement paiement " +
+           "WHERE paiement.status = :status " +
+           "AND paiement.createdAt >= :from " +
+           "AND paiement.createdAt < :to " +
+           "GROUP BY extract(date from paiement.createdAt)")
+    List<Object[]> sumAmountByStatusGroupByDay(@Param("status") PaiementStatus status,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+}
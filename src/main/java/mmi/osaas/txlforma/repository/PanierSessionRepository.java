@@ -1,11 +1,13 @@
 package mmi.osaas.txlforma.repository;
 
 import mmi.osaas.txlforma.model.PanierSession;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,4 +24,14 @@ public interface PanierSessionRepository extends JpaRepository<PanierSession, Lo
            "WHERE panierSession.panier.user.id = :userId " +
            "AND panierSession.panier.status = 'EN_COURS'")
     List<PanierSession> findActivePanierSessionsByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT panierSession.id, panierSession.session.formation.id, panierSession.addedAt " +
+           "FROM PanierSession panierSession " +
+           "WHERE panierSession.id > :afterId " +
+           "AND panierSession.addedAt >= :from AND panierSession.addedAt < :to " +
+           "ORDER BY panierSession.id")
+    List<Object[]> findFunnelRowsAfterId(@Param("afterId") Long afterId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         Pageable pageable);
 }
@@ -1,12 +1,18 @@
 package mmi.osaas.txlforma.repository;
 
+import mmi.osaas.txlforma.enums.AttestationType;
 import mmi.osaas.txlforma.enums.ParticipationStatus;
 import mmi.osaas.txlforma.model.Participation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -56,5 +62,95 @@ public interface ParticipationRepository extends JpaRepository<Participation, Lo
                                         @Param("paiementId") Long paiementId);
     
     List<Participation> findByPaiementId(Long paiementId);
+    
+    @Query("SELECT participation.id, session.id, formation.id, category.id, session.formateur.id, " +
+           "session.startDate, COALESCE(participation.amountPaid, session.price), participation.status, paiement.status, note.note " +
+           "FROM Participation participation " +
+           "JOIN participation.session session " +
+           "JOIN session.formation formation " +
+           "LEFT JOIN formation.category category " +
+           "JOIN participation.paiement paiement " +
+           "LEFT JOIN Note note ON note.participation = participation " +
+           "WHERE participation.id > :afterId " +
+           "ORDER BY participation.id")
+    List<Object[]> findFactsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT participation.id, session.id, formation.id, category.id, session.formateur.id, " +
+           "session.startDate, COALESCE(participation.amountPaid, session.price), participation.status, paiement.status, note.note " +
+           "FROM Participation participation " +
+           "JOIN participation.session session " +
+           "JOIN session.formation formation " +
+           "LEFT JOIN formation.category category " +
+           "JOIN participation.paiement paiement " +
+           "LEFT JOIN Note note ON note.participation = participation " +
+           "WHERE participation.id > :afterId " +
+           "AND (participation.updatedAt >= :since OR session.updatedAt >= :since " +
+           "OR formation.updatedAt >= :since OR paiement.updatedAt >= :since " +
+           "OR note.createdAt >= :since OR note.modifiedAt >= :since) " +
+           "ORDER BY participation.id")
+    List<Object[]> findFactsChangedSince(@Param("since") LocalDateTime since,
+                                         @Param("afterId") Long afterId,
+                                         Pageable pageable);
+    
+    @Query("SELECT participation.id, session.formation.id, paiement.createdAt, emargement.id, note.note, attestation.id " +
+           "FROM Participation participation " +
+           "JOIN participation.session session " +
+           "JOIN participation.paiement paiement " +
+           "LEFT JOIN Emargement emargement ON emargement.participation = participation " +
+           "LEFT JOIN Note note ON note.participation = participation " +
+           "LEFT JOIN Attestation attestation ON attestation.participation = participation AND attestation.type = :successType " +
+           "WHERE participation.id > :afterId " +
+           "AND paiement.createdAt >= :from AND paiement.createdAt < :to " +
+           "ORDER BY participation.id")
+    List<Object[]> findFunnelRowsAfterId(@Param("afterId") Long afterId,
+                                         @Param("successType") AttestationType successType,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         Pageable pageable);
+    
+    @Query("SELECT participation.id, note.note FROM Participation participation " +
+           "JOIN participation.session session " +
+           "JOIN Note note ON note.participation = participation " +
+           "WHERE participation.id > :afterId " +
+           "AND note.note >= 10 " +
+           "AND session.endDate <= :lastEndDate " +
+           "AND NOT EXISTS (SELECT attestation.id FROM Attestation attestation " +
+           "WHERE attestation.participation = participation AND attestation.type = :successType) " +
+           "ORDER BY participation.id")
+    List<Object[]> findSuccessEligibleAfterId(@Param("afterId") Long afterId,
+                                              @Param("lastEndDate") LocalDate lastEndDate,
+                                              @Param("successType") AttestationType successType,
+                                              Pageable pageable);
+
+    @Query("SELECT participation FROM Participation participation " +
+           "JOIN FETCH participation.user " +
+           "JOIN FETCH participation.session session " +
+           "JOIN FETCH session.formation " +
+           "WHERE participation.id IN :ids")
+    List<Participation> findWithUserAndSessionByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Participation participation SET participation.status = :status, participation.updatedAt = :updatedAt " +
+           "WHERE participation.id IN :ids AND participation.status <> :status")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") ParticipationStatus status,
+                           @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("SELECT participation.id, participation.session.formation.id, participation.user.id, participation.createdAt " +
+           "FROM Participation participation " +
+           "WHERE participation.id > :afterId " +
+           "ORDER BY participation.id")
+    List<Object[]> findLearnerRowsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT COUNT(DISTINCT participation.user.id) FROM Participation participation " +
+           "WHERE participation.createdAt >= :from AND participation.createdAt < :to")
+    long countDistinctUsersByCreatedAtBetween(@Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+    
+    @Query("SELECT COUNT(DISTINCT participation.user.id) FROM Participation participation " +
+           "WHERE participation.session.formation.id IN :formationIds " +
+           "AND participation.createdAt >= :from AND participation.createdAt < :to")
+    long countDistinctUsersByFormationIdsAndCreatedAtBetween(@Param("formationIds") Collection<Long> formationIds,
+                                                             @Param("from") LocalDateTime from,
+                                                             @Param("to") LocalDateTime to);
 }
 
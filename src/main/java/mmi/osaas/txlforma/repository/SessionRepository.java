@@ -21,6 +21,12 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
            "WHERE session.formateur.id = :formateurId")
     List<Session> findByFormateurId(@Param("formateurId") Long formateurId);
     
+    @Query("SELECT session.id FROM Session session WHERE session.formation.id = :formationId")
+    List<Long> findIdsByFormationId(@Param("formationId") Long formationId);
+    
+    @Query("SELECT session.id FROM Session session WHERE session.formateur.id = :formateurId")
+    List<Long> findIdsByFormateurId(@Param("formateurId") Long formateurId);
+    
     List<Session> findByStartDate(LocalDate startDate);
     
     List<Session> findByFormationIdAndFormateurId(Long formationId, Long formateurId);
@@ -44,5 +50,16 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
                                           @Param("endDate") LocalDate endDate,
                                           @Param("endTime") LocalTime endTime,
                                           @Param("excludeSessionId") Long excludeSessionId);
+    
+    @Query("SELECT session.formateur.id, session.startDate, session.endDate, session.startTime, session.endTime " +
+           "FROM Session session " +
+           "WHERE (:formateurId IS NULL OR session.formateur.id = :formateurId)")
+    List<Object[]> findSchedulesByFormateurId(@Param("formateurId") Long formateurId);
+    
+    @Query("SELECT session.startDate, SUM(session.capacity) FROM Session session " +
+           "WHERE session.startDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY session.startDate")
+    List<Object[]> sumCapacityGroupByStartDate(@Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate);
 }
 
@@ -0,0 +1,136 @@
+package mmi.osaas.txlforma.repository;
+
+import mmi.osaas.txlforma.enums.PaiementStatus;
+import mmi.osaas.txlforma.model.StatisticsRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface StatisticsRollupRepository extends JpaRepository<StatisticsRollup, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO statistics_rollups " +
+                   "(session_id, stat_date, participants, presence_attestations, success_attestations, notes, note_sum, revenue) " +
+                   "VALUES (:sessionId, :statDate, :participants, :presenceAttestations, :successAttestations, :notes, :noteSum, :revenue) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "participants = participants + VALUES(participants), " +
+                   "presence_attestations = presence_attestations + VALUES(presence_attestations), " +
+                   "success_attestations = success_attestations + VALUES(success_attestations), " +
+                   "notes = notes + VALUES(notes), " +
+                   "note_sum = note_sum + VALUES(note_sum), " +
+                   "revenue = revenue + VALUES(revenue)",
+           nativeQuery = true)
+    void increment(@Param("sessionId") Long sessionId,
+                   @Param("statDate") LocalDate statDate,
+                   @Param("participants") long participants,
+                   @Param("presenceAttestations") long presenceAttestations,
+                   @Param("successAttestations") long successAttestations,
+                   @Param("notes") long notes,
+                   @Param("noteSum") double noteSum,
+                   @Param("revenue") double revenue);
+
+    @Query(value = "SELECT id FROM statistics_rollups FOR UPDATE", nativeQuery = true)
+    List<Long> lockAll();
+
+    @Modifying
+    @Query("UPDATE Participation participation " +
+           "SET participation.amountPaid = (SELECT session.price FROM Session session WHERE session = participation.session) " +
+           "WHERE participation.amountPaid IS NULL")
+    int backfillAmountPaid();
+
+    @Query("SELECT COALESCE(SUM(rollup.participants), 0), " +
+           "COUNT(DISTINCT CASE WHEN rollup.participants > 0 THEN rollup.session.id END), " +
+           "COALESCE(SUM(rollup.successAttestations), 0) " +
+           "FROM StatisticsRollup rollup " +
+           "WHERE (:startDate IS NULL OR rollup.session.startDate >= :startDate) " +
+           "AND (:endDate IS NULL OR rollup.session.startDate <= :endDate)")
+    List<Object[]> summarizeBySessionStartDateBetween(@Param("startDate") LocalDate startDate,
+                                                      @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT rollup.session.formateur.id, SUM(rollup.participants), SUM(rollup.successAttestations), " +
+           "SUM(rollup.notes), SUM(rollup.noteSum) " +
+           "FROM StatisticsRollup rollup " +
+           "WHERE (:formateurId IS NULL OR rollup.session.formateur.id = :formateurId) " +
+           "GROUP BY rollup.session.formateur.id")
+    List<Object[]> summarizeGroupByFormateurId(@Param("formateurId") Long formateurId);
+
+    @Query("SELECT rollup.session.startDate, SUM(rollup.participants), SUM(rollup.successAttestations) " +
+           "FROM StatisticsRollup rollup " +
+           "WHERE rollup.session.startDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY rollup.session.startDate")
+    List<Object[]> summarizeGroupBySessionStartDate(@Param("startDate") LocalDate startDate,
+                                                    @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT session.id, SUM(rollup.participants), SUM(rollup.successAttestations), " +
+           "SUM(rollup.revenue), session.capacity " +
+           "FROM StatisticsRollup rollup " +
+           "JOIN rollup.session session " +
+           "WHERE (:startDate IS NULL OR session.startDate >= :startDate) " +
+           "AND (:endDate IS NULL OR session.startDate <= :endDate) " +
+           "GROUP BY session.id, session.capacity")
+    Stream<Object[]> streamRankingRowsBySession(@Param("startDate") LocalDate startDate,
+                                                @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT session.formation.id, SUM(rollup.participants), SUM(rollup.successAttestations), " +
+           "SUM(rollup.revenue), " +
+           "(SELECT SUM(other.capacity) FROM Session other " +
+           "WHERE other.formation.id = session.formation.id " +
+           "AND (:startDate IS NULL OR other.startDate >= :startDate) " +
+           "AND (:endDate IS NULL OR other.startDate <= :endDate)) " +
+           "FROM StatisticsRollup rollup " +
+           "JOIN rollup.session session " +
+           "WHERE (:startDate IS NULL OR session.startDate >= :startDate) " +
+           "AND (:endDate IS NULL OR session.startDate <= :endDate) " +
+           "GROUP BY session.formation.id")
+    Stream<Object[]> streamRankingRowsByFormation(@Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT session.formateur.id, SUM(rollup.participants), SUM(rollup.successAttestations), " +
+           "SUM(rollup.revenue), " +
+           "(SELECT SUM(other.capacity) FROM Session other " +
+           "WHERE other.formateur.id = session.formateur.id " +
+           "AND (:startDate IS NULL OR other.startDate >= :startDate) " +
+           "AND (:endDate IS NULL OR other.startDate <= :endDate)) " +
+           "FROM StatisticsRollup rollup " +
+           "JOIN rollup.session session " +
+           "WHERE (:startDate IS NULL OR session.startDate >= :startDate) " +
+           "AND (:endDate IS NULL OR session.startDate <= :endDate) " +
+           "GROUP BY session.formateur.id")
+    Stream<Object[]> streamRankingRowsByFormateur(@Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT rollup.session.id, SUM(rollup.participants), SUM(rollup.presenceAttestations), " +
+           "SUM(rollup.successAttestations), SUM(rollup.notes), SUM(rollup.noteSum), SUM(rollup.revenue) " +
+           "FROM StatisticsRollup rollup " +
+           "GROUP BY rollup.session.id")
+    List<Object[]> summarizeGroupBySessionId();
+
+    @Query("SELECT participation.session.id, extract(date from participation.createdAt), COUNT(participation) " +
+           "FROM Participation participation " +
+           "GROUP BY participation.session.id, extract(date from participation.createdAt)")
+    List<Object[]> countParticipationsGroupBySessionIdAndDate();
+
+    @Query("SELECT participation.session.id, extract(date from participation.createdAt), " +
+           "SUM(COALESCE(participation.amountPaid, participation.session.price)) " +
+           "FROM Participation participation " +
+           "WHERE participation.paiement.status = :status " +
+           "GROUP BY participation.session.id, extract(date from participation.createdAt)")
+    List<Object[]> sumRevenueByPaiementStatusGroupBySessionIdAndDate(@Param("status") PaiementStatus status);
+
+    @Query("SELECT attestation.participation.session.id, extract(date from attestation.generatedAt), attestation.type, COUNT(attestation) " +
+           "FROM Attestation attestation " +
+           "GROUP BY attestation.participation.session.id, extract(date from attestation.generatedAt), attestation.type")
+    List<Object[]> countAttestationsGroupBySessionIdAndDateAndType();
+
+    @Query("SELECT note.participation.session.id, extract(date from note.createdAt), COUNT(note), SUM(note.note) " +
+           "FROM Note note " +
+           "GROUP BY note.participation.session.id, extract(date from note.createdAt)")
+    List<Object[]> summarizeNotesGroupBySessionIdAndDate();
+}
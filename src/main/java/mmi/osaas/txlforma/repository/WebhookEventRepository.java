@@ -0,0 +1,38 @@
+package mmi.osaas.txlforma.repository;
+
+import mmi.osaas.txlforma.enums.WebhookEventStatus;
+import mmi.osaas.txlforma.model.WebhookEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WebhookEventRepository extends JpaRepository<WebhookEvent, Long> {
+    boolean existsByEventId(String eventId);
+    List<WebhookEvent> findByStatusOrderByIdDesc(WebhookEventStatus status, Pageable pageable);
+
+    @Query("SELECT webhookEvent.id FROM WebhookEvent webhookEvent " +
+           "WHERE webhookEvent.status IN :statuses AND webhookEvent.nextAttemptAt <= :now " +
+           "ORDER BY webhookEvent.nextAttemptAt")
+    List<Long> findDueIds(@Param("statuses") List<WebhookEventStatus> statuses, @Param("now") LocalDateTime now,
+                          Pageable pageable);
+
+    @Query("SELECT webhookEvent.status, COUNT(webhookEvent) FROM WebhookEvent webhookEvent " +
+           "GROUP BY webhookEvent.status")
+    List<Object[]> countByStatus();
+
+    @Modifying
+    @Query("UPDATE WebhookEvent webhookEvent " +
+           "SET webhookEvent.status = :claimed, webhookEvent.attempts = webhookEvent.attempts + 1, " +
+           "webhookEvent.nextAttemptAt = :leaseUntil " +
+           "WHERE webhookEvent.id = :id AND webhookEvent.status IN :statuses AND webhookEvent.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("statuses") List<WebhookEventStatus> statuses,
+              @Param("claimed") WebhookEventStatus claimed, @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+}
@@ -0,0 +1,262 @@
+package mmi.osaas.txlforma.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mmi.osaas.txlforma.enums.AttestationStatus;
+import mmi.osaas.txlforma.repository.AttestationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AttestationIntegrityScanner {
+
+    private static final long BACKPRESSURE_POLL_MS = 100;
+    private static final int REPORTED_DROPPED_IDS = 100;
+    private static final int SCAN_REPORTS = 20;
+
+    private final AttestationRepository attestationRepository;
+    private final AttestationStorage attestationStorage;
+    private final AttestationRenderQueue attestationRenderQueue;
+
+    @Value("${app.attestations.scan-batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.attestations.scan-verify-hash:false}")
+    private boolean verifyHash;
+
+    @Value("${app.attestations.scan-backpressure-timeout-ms:60000}")
+    private long backpressureTimeoutMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Set<Long> undelivered = ConcurrentHashMap.newKeySet();
+    private final Map<String, Map<String, Object>> scanReports = new LinkedHashMap<>();
+    private final ExecutorService scanRunner = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("attestation-integrity-scan").daemon().factory());
+    private volatile Map<String, Object> lastReport = Map.of();
+
+    public Map<String, Object> scan() {
+        if (!running.compareAndSet(false, true)) {
+            return Map.of("skipped", true);
+        }
+        try {
+            return runScan();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /** Lance le scan sur scanRunner et retourne l'identifiant de son rapport */
+    public String submitScan() {
+        String scanId = UUID.randomUUID().toString();
+        Map<String, Object> report = new HashMap<>();
+        report.put("status", "QUEUED");
+        report.put("requestedAt", ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime());
+        saveScanReport(scanId, report);
+        scanRunner.execute(() -> {
+            Map<String, Object> running = new HashMap<>(report);
+            running.put("status", "RUNNING");
+            saveScanReport(scanId, running);
+            Map<String, Object> finished = new HashMap<>(running);
+            try {
+                Map<String, Object> result = scan();
+                finished.putAll(result);
+                finished.put("status", result.containsKey("skipped") ? "SKIPPED" : "COMPLETED");
+            } catch (Exception e) {
+                log.error("[AttestationIntegrityScanner] Scan {} failed", scanId, e);
+                finished.put("status", "FAILED");
+                finished.put("error", e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+            saveScanReport(scanId, finished);
+        });
+        return scanId;
+    }
+
+    public Map<String, Object> getScanReport(String scanId) {
+        synchronized (scanReports) {
+            Map<String, Object> report = scanReports.get(scanId);
+            if (report == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Rapport de scan introuvable");
+            }
+            return report;
+        }
+    }
+
+    public Map<String, Object> getLastReport() {
+        return lastReport;
+    }
+
+    /** Remet en file les attestations refusées par une file de rendu saturée lors des scans précédents */
+    public void retryUndelivered() {
+        for (Long attestationId : undelivered) {
+            if (attestationRenderQueue.remainingCapacity() == 0) {
+                return;
+            }
+            if (attestationRenderQueue.enqueue(attestationId) || attestationRenderQueue.isInFlight(attestationId)) {
+                undelivered.remove(attestationId);
+            }
+        }
+    }
+
+    private Map<String, Object> runScan() {
+        long startedAt = System.nanoTime();
+        retryUndelivered();
+        long scanned = 0;
+        long missing = 0;
+        long corrupt = 0;
+        long queued = 0;
+        List<Long> droppedIds = new ArrayList<>();
+        boolean saturated = false;
+        long afterId = 0;
+        while (true) {
+            List<Object[]> rows = attestationRepository.findScanRowsAfterId(afterId, PageRequest.of(0, batchSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            for (Object[] row : rows) {
+                Long attestationId = (Long) row[0];
+                String filePath = (String) row[1];
+                String contentHash = (String) row[2];
+                AttestationStatus status = (AttestationStatus) row[3];
+                scanned++;
+                if (status == AttestationStatus.PENDING || status == AttestationStatus.RENDERING) {
+                    continue;
+                }
+                FileState state = check(filePath, contentHash);
+                if (state == FileState.OK) {
+                    continue;
+                }
+                if (state == FileState.MISSING) {
+                    missing++;
+                } else {
+                    corrupt++;
+                }
+                // Après un premier délai dépassé, on n'attend plus : le reste est confié à retryUndelivered()
+                if (enqueue(attestationId, saturated ? 0 : backpressureTimeoutMs)) {
+                    undelivered.remove(attestationId);
+                    queued++;
+                } else {
+                    saturated = true;
+                    undelivered.add(attestationId);
+                    droppedIds.add(attestationId);
+                }
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+            if (rows.size() < batchSize) {
+                break;
+            }
+        }
+        if (!droppedIds.isEmpty()) {
+            log.warn("[AttestationIntegrityScanner] Render queue saturated, {} attestations left for retry", droppedIds.size());
+        }
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("scannedAt", ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime());
+        report.put("scanned", scanned);
+        report.put("missing", missing);
+        report.put("corrupt", corrupt);
+        report.put("queued", queued);
+        report.put("dropped", droppedIds.size());
+        report.put("droppedIds", droppedIds.subList(0, Math.min(droppedIds.size(), REPORTED_DROPPED_IDS)));
+        report.put("retryPending", undelivered.size());
+        report.put("hashVerified", verifyHash);
+        report.put("durationMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        lastReport = report;
+        log.info("[AttestationIntegrityScanner] Scan finished: {}", report);
+        return report;
+    }
+
+    private boolean enqueue(Long attestationId, long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (true) {
+            if (attestationRenderQueue.remainingCapacity() > 0 && attestationRenderQueue.enqueue(attestationId)) {
+                return true;
+            }
+            if (attestationRenderQueue.isInFlight(attestationId)) {
+                return true;
+            }
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(BACKPRESSURE_POLL_MS);
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private void saveScanReport(String scanId, Map<String, Object> report) {
+        Map<String, Object> snapshot = new HashMap<>(report);
+        snapshot.put("scanId", scanId);
+        synchronized (scanReports) {
+            scanReports.put(scanId, Collections.unmodifiableMap(snapshot));
+            if (scanReports.size() > SCAN_REPORTS) {
+                scanReports.remove(scanReports.keySet().iterator().next());
+            }
+        }
+    }
+
+    private FileState check(String filePath, String contentHash) {
+        try {
+            if (contentHash != null) {
+                if (!attestationStorage.exists(contentHash)) {
+                    return FileState.MISSING;
+                }
+                if (verifyHash && !attestationStorage.verify(contentHash)) {
+                    attestationStorage.delete(contentHash);
+                    return FileState.CORRUPT;
+                }
+                return FileState.OK;
+            }
+            if (filePath == null || filePath.isEmpty()) {
+                return FileState.MISSING;
+            }
+            Path file = Paths.get(filePath);
+            if (!Files.exists(file)) {
+                return FileState.MISSING;
+            }
+            return Files.size(file) > 0 ? FileState.OK : FileState.CORRUPT;
+        } catch (IOException ioException) {
+            log.warn("[AttestationIntegrityScanner] Could not check attestation file {}", filePath, ioException);
+            return FileState.CORRUPT;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanRunner.shutdownNow();
+    }
+
+    private enum FileState {
+        OK,
+        MISSING,
+        CORRUPT
+    }
+}
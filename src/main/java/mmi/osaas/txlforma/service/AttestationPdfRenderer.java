@@ -0,0 +1,338 @@
+package mmi.osaas.txlforma.service;
+
+import com.itextpdf.barcodes.BarcodeQRCode;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.CompressionConstants;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.Canvas;
+import com.itextpdf.layout.element.Div;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.layout.LayoutArea;
+import com.itextpdf.layout.layout.LayoutContext;
+import com.itextpdf.layout.layout.LayoutResult;
+import com.itextpdf.layout.properties.HorizontalAlignment;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.renderer.CanvasRenderer;
+import com.itextpdf.layout.renderer.DrawContext;
+import com.itextpdf.layout.renderer.IRenderer;
+import lombok.extern.slf4j.Slf4j;
+import mmi.osaas.txlforma.enums.AttestationType;
+import mmi.osaas.txlforma.model.Participation;
+import mmi.osaas.txlforma.model.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@Slf4j
+public class AttestationPdfRenderer {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DeviceRgb BLACK = new DeviceRgb(0, 0, 0);
+    private static final DeviceRgb GREEN = new DeviceRgb(83, 242, 106);
+
+    private static final Rectangle BORDER_AREA = new Rectangle(50, 50, 495, 742);
+    private static final Rectangle HEADER_AREA = new Rectangle(100, 480, 395, 262);
+    private static final Rectangle BODY_AREA = new Rectangle(100, 150, 395, 330);
+    private static final Rectangle FOOTER_AREA = new Rectangle(100, 90, 395, 50);
+    private static final Rectangle QR_CODE_AREA = new Rectangle(460, 58, 78, 78);
+    private static final Rectangle CONTINUATION_AREA = new Rectangle(100, 100, 395, 642);
+    private static final float MIN_BODY_SCALE = 0.6f;
+
+    private static final FontProgram REGULAR_FONT = loadFont(StandardFonts.HELVETICA);
+    private static final FontProgram BOLD_FONT = loadFont(StandardFonts.HELVETICA_BOLD);
+
+    private final Path logoPath;
+    private final boolean compact;
+    private final Map<AttestationType, byte[]> templates = new EnumMap<>(AttestationType.class);
+    private final LongAdder rendered = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder outputBytes = new LongAdder();
+    private final LongAccumulator largestOutputBytes = new LongAccumulator(Math::max, 0);
+    private final LongAdder booksRendered = new LongAdder();
+    private final LongAdder bookOutputBytes = new LongAdder();
+    private final LongAdder shrunkBodies = new LongAdder();
+    private final LongAdder continuedBodies = new LongAdder();
+    private volatile ImageData logo;
+    private volatile boolean logoLoaded;
+
+    public AttestationPdfRenderer(@Value("${app.attestations.logo-path:front/public/logo.png}") String logoPath,
+                                  @Value("${app.attestations.compact-output:true}") boolean compact) {
+        this.logoPath = Paths.get(logoPath);
+        this.compact = compact;
+    }
+
+    public void render(Participation participation, AttestationType type, Double note, String verificationUrl,
+                       Path filePath) throws IOException {
+        long startedAt = System.nanoTime();
+        long allocatedBefore = threadAllocatedBytes();
+        byte[] template = templateFor(type);
+
+        try (PdfWriter writer = new PdfWriter(filePath.toString(), writerProperties());
+             PdfDocument pdf = new PdfDocument(writer);
+             PdfDocument source = new PdfDocument(new PdfReader(new ByteArrayInputStream(template)))) {
+            PdfFormXObject background = source.getFirstPage().copyAsFormXObject(pdf);
+            addPage(pdf, background, regular(), bold(), participation, type, note, verificationUrl);
+        } finally {
+            rendered.increment();
+            renderNanos.add(System.nanoTime() - startedAt);
+            long allocatedAfter = threadAllocatedBytes();
+            if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+                allocatedBytes.add(allocatedAfter - allocatedBefore);
+            }
+        }
+        long size = Files.size(filePath);
+        outputBytes.add(size);
+        largestOutputBytes.accumulate(size);
+    }
+
+    public void renderBook(List<Participation> participations, AttestationType type, Map<Long, Double> notes,
+                           Map<Long, String> verificationUrls, OutputStream output) throws IOException {
+        byte[] template = templateFor(type);
+        PdfWriter writer = new PdfWriter(output, writerProperties());
+        writer.setCloseStream(false);
+        try (PdfDocument pdf = new PdfDocument(writer);
+             PdfDocument source = new PdfDocument(new PdfReader(new ByteArrayInputStream(template)))) {
+            PdfFormXObject background = source.getFirstPage().copyAsFormXObject(pdf);
+            PdfFont regular = regular();
+            PdfFont bold = bold();
+            for (Participation participation : participations) {
+                addPage(pdf, background, regular, bold, participation, type, notes.get(participation.getId()),
+                        verificationUrls.get(participation.getId()));
+                pdf.getLastPage().flush();
+            }
+        }
+        booksRendered.increment();
+        bookOutputBytes.add(writer.getCurrentPos());
+    }
+
+    public Map<String, Object> getStatistics() {
+        long count = rendered.sum();
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("rendered", count);
+        statistics.put("averageMs", count > 0 ? Math.round(renderNanos.sum() / 1_000_000.0 / count * 100.0) / 100.0 : 0.0);
+        statistics.put("averageAllocatedBytes", count > 0 ? allocatedBytes.sum() / count : 0);
+        statistics.put("compactOutput", compact);
+        statistics.put("outputBytes", outputBytes.sum());
+        statistics.put("averageOutputBytes", count > 0 ? outputBytes.sum() / count : 0);
+        statistics.put("largestOutputBytes", largestOutputBytes.get());
+        statistics.put("booksRendered", booksRendered.sum());
+        statistics.put("bookOutputBytes", bookOutputBytes.sum());
+        statistics.put("shrunkBodies", shrunkBodies.sum());
+        statistics.put("continuedBodies", continuedBodies.sum());
+        synchronized (templates) {
+            statistics.put("templatesCached", templates.size());
+        }
+        return statistics;
+    }
+
+    private void addPage(PdfDocument pdf, PdfFormXObject background, PdfFont regular, PdfFont bold,
+                         Participation participation, AttestationType type, Double note, String verificationUrl) {
+        PdfPage page = pdf.addNewPage(PageSize.A4);
+        PdfCanvas pdfCanvas = new PdfCanvas(page);
+        pdfCanvas.addXObjectAt(background, 0, 0);
+
+        try (Canvas canvas = new Canvas(pdfCanvas, BODY_AREA)) {
+            addBody(pdf, canvas, regular, bold, participation, type, note);
+        }
+
+        if (verificationUrl != null) {
+            PdfFormXObject qrCode = new BarcodeQRCode(verificationUrl).createFormXObject(BLACK, pdf);
+            pdfCanvas.addXObjectFittedIntoRectangle(qrCode, QR_CODE_AREA);
+        }
+    }
+
+    /**
+     * Réduit la police jusqu'à MIN_BODY_SCALE si le texte dépasse BODY_AREA, puis poursuit
+     * sur des pages de suite plutôt que de laisser le Canvas tronquer le contenu
+     */
+    private void addBody(PdfDocument pdf, Canvas canvas, PdfFont regular, PdfFont bold,
+                         Participation participation, AttestationType type, Double note) {
+        int pageNumber = pdf.getNumberOfPages();
+        float scale = 1f;
+        IRenderer renderer = bodyRenderer(canvas, regular, bold, participation, type, note, scale);
+        LayoutResult result = renderer.layout(new LayoutContext(new LayoutArea(pageNumber, BODY_AREA.clone())));
+        while (result.getStatus() != LayoutResult.FULL && scale > MIN_BODY_SCALE) {
+            scale = Math.max(MIN_BODY_SCALE, scale - 0.1f);
+            renderer = bodyRenderer(canvas, regular, bold, participation, type, note, scale);
+            result = renderer.layout(new LayoutContext(new LayoutArea(pageNumber, BODY_AREA.clone())));
+        }
+        if (scale < 1f) {
+            shrunkBodies.increment();
+        }
+        if (result.getStatus() == LayoutResult.FULL) {
+            renderer.draw(new DrawContext(pdf, canvas.getPdfCanvas()));
+            return;
+        }
+
+        continuedBodies.increment();
+        PdfCanvas pageCanvas = canvas.getPdfCanvas();
+        while (result.getStatus() == LayoutResult.PARTIAL) {
+            result.getSplitRenderer().draw(new DrawContext(pdf, pageCanvas));
+            PdfPage page = pdf.addNewPage(PageSize.A4);
+            pageCanvas = new PdfCanvas(page);
+            pageCanvas.setStrokeColor(BLACK).setLineWidth(2)
+                    .rectangle(BORDER_AREA.getX(), BORDER_AREA.getY(), BORDER_AREA.getWidth(), BORDER_AREA.getHeight())
+                    .stroke();
+            renderer = result.getOverflowRenderer();
+            result = renderer.layout(new LayoutContext(new LayoutArea(pdf.getNumberOfPages(), CONTINUATION_AREA.clone())));
+        }
+        if (result.getStatus() == LayoutResult.FULL) {
+            renderer.draw(new DrawContext(pdf, pageCanvas));
+        } else {
+            log.warn("[AttestationPdfRenderer] Body of participation {} does not fit a page, remaining content skipped",
+                    participation.getId());
+        }
+    }
+
+    private IRenderer bodyRenderer(Canvas canvas, PdfFont regular, PdfFont bold, Participation participation,
+                                   AttestationType type, Double note, float scale) {
+        Session session = participation.getSession();
+        Div body = new Div().setFont(regular).setFontSize(13 * scale).setTextAlignment(TextAlignment.LEFT);
+        body.add(new Paragraph(participation.getUser().getFirstname() + " " + participation.getUser().getLastname())
+                .setFont(bold).setFontSize(15 * scale).setMarginBottom(12 * scale));
+        body.add(new Paragraph("a " + (type == AttestationType.PRESENCE ? "assisté à" : "réussi") + " la formation :")
+                .setMarginBottom(12 * scale));
+        body.add(new Paragraph(session.getFormation().getTitle())
+                .setFont(bold).setFontSize(15 * scale).setMarginBottom(12 * scale));
+        body.add(new Paragraph("Session du " + session.getStartDate().format(DATE_FORMAT) +
+                " au " + session.getEndDate().format(DATE_FORMAT)).setMarginBottom(12 * scale));
+        body.add(new Paragraph("Lieu : " + session.getLocation()));
+        if (type == AttestationType.SUCCES && note != null) {
+            body.add(new Paragraph("Note obtenue : " + note + "/20")
+                    .setFont(bold).setFontSize(14 * scale).setMarginTop(12 * scale));
+        }
+        body.add(new Paragraph("Fait à " + ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDate().format(DATE_FORMAT))
+                .setMarginTop(24 * scale));
+        return body.createRendererSubTree().setParent(new CanvasRenderer(canvas));
+    }
+
+    private byte[] templateFor(AttestationType type) {
+        synchronized (templates) {
+            return templates.computeIfAbsent(type, this::buildTemplate);
+        }
+    }
+
+    private byte[] buildTemplate(AttestationType type) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (PdfDocument pdf = new PdfDocument(new PdfWriter(output, writerProperties()))) {
+            PdfPage page = pdf.addNewPage(PageSize.A4);
+            PdfCanvas pdfCanvas = new PdfCanvas(page);
+            pdfCanvas.setStrokeColor(BLACK).setLineWidth(2)
+                    .rectangle(BORDER_AREA.getX(), BORDER_AREA.getY(), BORDER_AREA.getWidth(), BORDER_AREA.getHeight())
+                    .stroke();
+
+            PdfFont regular = regular();
+            PdfFont bold = bold();
+            try (Canvas header = new Canvas(pdfCanvas, HEADER_AREA)) {
+                header.setFont(regular).setTextAlignment(TextAlignment.CENTER);
+                ImageData logoData = logo();
+                if (logoData != null) {
+                    header.add(new Image(logoData)
+                            .setWidth(120)
+                            .setMaxHeight(90)
+                            .setHorizontalAlignment(HorizontalAlignment.CENTER));
+                } else {
+                    header.add(new Paragraph("TXLFORMA").setFont(bold).setFontSize(36)
+                            .setFontColor(GREEN).setMarginBottom(15));
+                }
+                header.add(new Paragraph("ATTESTATION").setFont(bold).setFontSize(30).setMarginBottom(10));
+                header.add(new Paragraph(type == AttestationType.PRESENCE ? "DE PRÉSENCE" : "DE SUCCÈS")
+                        .setFont(bold).setFontSize(22).setFontColor(GREEN).setMarginBottom(30));
+                header.add(new Paragraph("Je soussigné(e), représentant de TXLFORMA, certifie que :")
+                        .setFontSize(13).setTextAlignment(TextAlignment.LEFT));
+            }
+            try (Canvas footer = new Canvas(pdfCanvas, FOOTER_AREA)) {
+                footer.add(new Paragraph("TXLFORMA").setFont(bold).setFontSize(16).setFontColor(GREEN));
+            }
+        }
+        return output.toByteArray();
+    }
+
+    private WriterProperties writerProperties() {
+        WriterProperties properties = new WriterProperties();
+        if (compact) {
+            properties.setFullCompressionMode(true).setCompressionLevel(CompressionConstants.BEST_COMPRESSION);
+        }
+        return properties;
+    }
+
+    private PdfFont regular() {
+        return font(REGULAR_FONT);
+    }
+
+    private PdfFont bold() {
+        return font(BOLD_FONT);
+    }
+
+    private PdfFont font(FontProgram program) {
+        PdfFont font = PdfFontFactory.createFont(program, PdfEncodings.WINANSI);
+        font.setSubset(compact);
+        return font;
+    }
+
+    private ImageData logo() {
+        if (!logoLoaded) {
+            try {
+                logo = Files.exists(logoPath) ? ImageDataFactory.create(logoPath.toAbsolutePath().toString()) : null;
+            } catch (Exception e) {
+                log.warn("[AttestationPdfRenderer] Could not load logo {}", logoPath, e);
+                logo = null;
+            }
+            logoLoaded = true;
+        }
+        return logo;
+    }
+
+    private static FontProgram loadFont(String name) {
+        try {
+            return FontProgramFactory.createFont(name);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    private static long threadAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean
+                && threadMXBean.isThreadAllocatedMemorySupported()) {
+            return threadMXBean.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,136 @@
+package mmi.osaas.txlforma.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mmi.osaas.txlforma.enums.AttestationStatus;
+import mmi.osaas.txlforma.event.AttestationRequestedEvent;
+import mmi.osaas.txlforma.repository.AttestationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AttestationRenderQueue {
+
+    private final AttestationService attestationService;
+    private final AttestationRepository attestationRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.attestations.render-workers:2}")
+    private int workers;
+
+    @Value("${app.attestations.render-queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${app.attestations.render-max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.attestations.render-retry-delay-ms:2000}")
+    private long retryDelayMs;
+
+    @Value("${app.attestations.batch-claim-timeout-ms:3600000}")
+    private long batchClaimTimeoutMs;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService retryScheduler;
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("attestation-render-", 0).factory());
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("attestation-retry").daemon().factory());
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttestationRequested(AttestationRequestedEvent event) {
+        submit(event.getAttestationId(), 1);
+    }
+
+    public boolean enqueue(Long attestationId) {
+        return submit(attestationId, 1);
+    }
+
+    public int remainingCapacity() {
+        return executor.getQueue().remainingCapacity();
+    }
+
+    public boolean isInFlight(Long attestationId) {
+        return inFlight.contains(attestationId);
+    }
+
+    public void resubmitPending() {
+        // Un lot interrompu laisse ses lignes en RENDERING : passé le délai, elles reviennent à la file
+        Integer reclaimed = transaction.execute(status -> attestationRepository.updateStatusGeneratedBefore(
+                AttestationStatus.RENDERING, AttestationStatus.PENDING,
+                ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime().minusNanos(TimeUnit.MILLISECONDS.toNanos(batchClaimTimeoutMs))));
+        if (reclaimed != null && reclaimed > 0) {
+            log.warn("[AttestationRenderQueue] Reclaimed {} attestations left in RENDERING by an interrupted batch", reclaimed);
+        }
+        for (Long attestationId : attestationRepository.findIdsByStatus(AttestationStatus.PENDING)) {
+            submit(attestationId, 1);
+        }
+    }
+
+    private boolean submit(Long attestationId, int attempt) {
+        if (attempt == 1 && !inFlight.add(attestationId)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> render(attestationId, attempt));
+            return true;
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            inFlight.remove(attestationId);
+            log.warn("[AttestationRenderQueue] Queue full, attestation {} not queued", attestationId);
+            return false;
+        }
+    }
+
+    private void render(Long attestationId, int attempt) {
+        try {
+            attestationService.renderAttestation(attestationId);
+            inFlight.remove(attestationId);
+        } catch (Exception e) {
+            if (attempt >= maxAttempts) {
+                inFlight.remove(attestationId);
+                log.error("[AttestationRenderQueue] Attestation {} failed after {} attempts", attestationId, attempt, e);
+                try {
+                    attestationService.markAttestationFailed(attestationId);
+                } catch (Exception markException) {
+                    log.error("[AttestationRenderQueue] Could not mark attestation {} as failed", attestationId, markException);
+                }
+                return;
+            }
+            long delay = retryDelayMs << (attempt - 1);
+            log.warn("[AttestationRenderQueue] Attestation {} attempt {} failed, retrying in {} ms", attestationId, attempt, delay);
+            retryScheduler.schedule(() -> submit(attestationId, attempt + 1), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        executor.shutdown();
+    }
+}
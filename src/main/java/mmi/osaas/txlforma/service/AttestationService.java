@@ -1,45 +1,67 @@
 package mmi.osaas.txlforma.service;
 
-import com.itextpdf.io.image.ImageDataFactory;
-import com.itextpdf.kernel.colors.DeviceRgb;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.borders.SolidBorder;
-import com.itextpdf.layout.element.Div;
-import com.itextpdf.layout.element.Image;
-import com.itextpdf.layout.element.Paragraph;
-import com.itextpdf.layout.element.Text;
-import com.itextpdf.layout.properties.HorizontalAlignment;
-import com.itextpdf.layout.properties.TextAlignment;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import mmi.osaas.txlforma.dto.AttestationDTO;
+import mmi.osaas.txlforma.enums.AttestationStatus;
 import mmi.osaas.txlforma.enums.AttestationType;
 import mmi.osaas.txlforma.enums.ParticipationStatus;
+import mmi.osaas.txlforma.enums.StatisticsTopic;
+import mmi.osaas.txlforma.event.AttestationRequestedEvent;
+import mmi.osaas.txlforma.event.StatisticsChangedEvent;
+import mmi.osaas.txlforma.event.SuccessAttestationsRequestedEvent;
 import mmi.osaas.txlforma.model.Attestation;
 import mmi.osaas.txlforma.model.Note;
 import mmi.osaas.txlforma.model.Participation;
+import mmi.osaas.txlforma.model.Session;
 import mmi.osaas.txlforma.repository.AttestationRepository;
 import mmi.osaas.txlforma.repository.EmargementRepository;
 import mmi.osaas.txlforma.repository.NoteRepository;
 import mmi.osaas.txlforma.repository.ParticipationRepository;
+import mmi.osaas.txlforma.repository.SessionRepository;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
+@Slf4j
 @RequiredArgsConstructor
 public class AttestationService {
 
@@ -47,9 +69,25 @@ public class AttestationService {
     private final ParticipationRepository participationRepository;
     private final EmargementRepository emargementRepository;
     private final NoteRepository noteRepository;
+    private final SessionRepository sessionRepository;
+    private final StatisticsRollupService statisticsRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+    private final AttestationPdfRenderer attestationPdfRenderer;
+    private final AttestationStorage attestationStorage;
+    private final AttestationSignatureService attestationSignatureService;
 
-    @Value("${app.attestations.directory:attestations}")
-    private String attestationsDirectory;
+    @Value("${app.attestations.batch-chunk-size:200}")
+    private int batchChunkSize;
+
+    @Value("${app.attestations.batch-threads:0}")
+    private int batchThreads;
+
+    private static final int SUCCESS_BATCH_REPORTS = 20;
+
+    private final Map<String, Map<String, Object>> successBatchReports = new LinkedHashMap<>();
+    private final ExecutorService successBatchRunner = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("success-attestation-batch").daemon().factory());
 
     @Transactional
     public Attestation generateAttestation(Long participationId) {
@@ -72,203 +110,413 @@ public class AttestationService {
         }
     }
 
-    public List<AttestationDTO> getMyAttestations(Long userId) {
-        return attestationRepository.findByParticipationUserId(userId).stream()
-                .map(this::toAttestationDTO)
-                .toList();
+    @Transactional
+    public void requestAttestation(Long participationId) {
+        Participation participation = participationRepository.findById(participationId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Participation introuvable"));
+
+        AttestationType type = determineAttestationType(participation);
+        if (type == null || attestationRepository.findByParticipationIdAndType(participationId, type).isPresent()) {
+            return;
+        }
+
+        Attestation attestation = Attestation.builder()
+                .participation(participation)
+                .type(type)
+                .filePath("")
+                .status(AttestationStatus.PENDING)
+                .generatedAt(ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime())
+                .build();
+        attestation = attestationRepository.save(attestation);
+        statisticsRollupService.recordAttestation(attestation);
+        eventPublisher.publishEvent(new StatisticsChangedEvent(StatisticsTopic.ATTESTATION));
+        eventPublisher.publishEvent(new AttestationRequestedEvent(attestation.getId()));
     }
 
-    private AttestationDTO toAttestationDTO(Attestation attestation) {
-        Participation participation = attestation.getParticipation();
-        AttestationDTO.AttestationDTOBuilder builder = AttestationDTO.builder()
-                .id(attestation.getId())
-                .type(attestation.getType())
-                .generatedAt(attestation.getGeneratedAt())
-                .participationId(participation.getId())
-                .userFirstname(participation.getUser().getFirstname())
-                .userLastname(participation.getUser().getLastname())
-                .formationTitle(participation.getSession().getFormation().getTitle())
-                .startDate(participation.getSession().getStartDate())
-                .startTime(participation.getSession().getStartTime());
-
-        if (attestation.getType() == AttestationType.SUCCES) {
-            noteRepository.findByParticipationId(participation.getId())
-                    .ifPresent(note -> builder.note(note.getNote()));
+    /**
+     * Lecture et écriture en deux transactions courtes : le rendu du PDF ne garde pas de connexion ouverte
+     */
+    public void renderAttestation(Long attestationId) throws IOException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Double[] note = new Double[1];
+        Attestation attestation = transaction.execute(status -> {
+            Attestation found = attestationRepository.findById(attestationId).orElse(null);
+            if (found == null || found.getStatus() == AttestationStatus.RENDERING
+                    || (isReady(found) && isStored(found))) {
+                return null;
+            }
+            participationRepository.findWithUserAndSessionByIdIn(List.of(found.getParticipation().getId()));
+            note[0] = findNoteValue(found.getParticipation(), found.getType());
+            return found;
+        });
+        if (attestation == null) {
+            return;
         }
 
-        return builder.build();
+        renderAndStore(attestation, note[0]);
+
+        transaction.executeWithoutResult(status -> attestationRepository.findById(attestationId)
+                .filter(stored -> stored.getStatus() != AttestationStatus.RENDERING)
+                .ifPresent(stored -> {
+                    stored.setContentHash(attestation.getContentHash());
+                    stored.setFilePath(attestation.getFilePath());
+                    stored.setStatus(AttestationStatus.READY);
+                    attestationRepository.save(stored);
+                }));
+    }
+
+    @Transactional
+    public void markAttestationFailed(Long attestationId) {
+        attestationRepository.findById(attestationId).ifPresent(attestation -> {
+            attestation.setStatus(AttestationStatus.FAILED);
+            attestationRepository.save(attestation);
+        });
+    }
+
+    public List<AttestationDTO> getMyAttestations(Long userId) {
+        return attestationRepository.findDTOsByUserId(userId);
     }
 
     @Transactional
-    public byte[] downloadAttestation(Long attestationId) {
+    public Attestation downloadAttestation(Long attestationId) {
         Attestation attestation = attestationRepository.findById(attestationId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Attestation introuvable"));
+        if (isPending(attestation)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "L'attestation est en cours de génération");
+        }
 
-        try {
-            Path filePath = Paths.get(attestation.getFilePath());
-            if (!Files.exists(filePath)) {
+        if (!isStored(attestation)) {
+            try {
+                regeneratePdfIfMissing(attestation);
+                if (!isStored(attestation)) {
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Fichier PDF introuvable et impossible à régénérer");
+                }
+            } catch (IOException ioException) {
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Erreur lors de la régénération du PDF");
+            }
+        }
+        return attestation;
+    }
+
+    public Resource openAttestation(Attestation attestation) {
+        return attestation.getContentHash() != null
+                ? attestationStorage.load(attestation.getContentHash())
+                : new FileSystemResource(attestation.getFilePath());
+    }
+
+    public List<Attestation> getSessionAttestations(Long sessionId, Long formateurId) {
+        checkSessionAccess(sessionId, formateurId);
+        List<Attestation> attestations = attestationRepository.findByParticipationSessionId(sessionId);
+        if (attestations.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Aucune attestation pour cette session");
+        }
+        return attestations;
+    }
+
+    private void checkSessionAccess(Long sessionId, Long formateurId) {
+        Session session = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Session introuvable"));
+        if (formateurId != null && !session.getFormateur().getId().equals(formateurId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Vous n'êtes pas le formateur de cette session");
+        }
+    }
+
+    public void writeSessionArchive(List<Attestation> attestations, OutputStream output) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(output);
+        zip.setLevel(Deflater.BEST_SPEED);
+        for (Attestation attestation : attestations) {
+            if (isPending(attestation)) {
+                continue;
+            }
+            if (!isStored(attestation)) {
                 try {
                     regeneratePdfIfMissing(attestation);
-                    attestation = attestationRepository.findById(attestationId)
-                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Attestation introuvable"));
-                    filePath = Paths.get(attestation.getFilePath());
-                    if (!Files.exists(filePath)) {
-                        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Fichier PDF introuvable et impossible à régénérer");
-                    }
                 } catch (IOException ioException) {
-                    throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Erreur lors de la régénération du PDF");
+                    log.warn("[AttestationService] Attestation {} skipped from session archive", attestation.getId(), ioException);
+                    continue;
                 }
             }
-            return Files.readAllBytes(filePath);
-        } catch (IOException ioException) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Erreur lors de la lecture du fichier");
+            zip.putNextEntry(new ZipEntry(archiveEntryName(attestation)));
+            try (InputStream input = openAttestation(attestation).getInputStream()) {
+                input.transferTo(zip);
+            }
+            zip.closeEntry();
+        }
+        zip.finish();
+    }
+
+    public List<Attestation> getSessionBookAttestations(Long sessionId, AttestationType type, Long formateurId) {
+        checkSessionAccess(sessionId, formateurId);
+        List<Attestation> attestations = attestationRepository.findByParticipationSessionId(sessionId).stream()
+                .filter(attestation -> attestation.getType() == type && !isPending(attestation))
+                .sorted(Comparator.comparing((Attestation attestation) -> attestation.getParticipation().getUser().getLastname())
+                        .thenComparing(attestation -> attestation.getParticipation().getUser().getFirstname()))
+                .toList();
+        if (attestations.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Aucune attestation de type " + type + " pour cette session");
+        }
+        return attestations;
+    }
+
+    public void writeSessionBook(Long sessionId, List<Attestation> attestations, AttestationType type,
+                                 OutputStream output) throws IOException {
+        Map<Long, Double> notes = new HashMap<>();
+        if (type == AttestationType.SUCCES) {
+            noteRepository.findByParticipationSessionId(sessionId)
+                    .forEach(note -> notes.put(note.getParticipation().getId(), note.getNote()));
+        }
+        List<Participation> participations = new ArrayList<>();
+        Map<Long, String> verificationUrls = new HashMap<>();
+        for (Attestation attestation : attestations) {
+            Participation participation = attestation.getParticipation();
+            participations.add(participation);
+            verificationUrls.put(participation.getId(), verificationUrl(attestation, notes.get(participation.getId())));
         }
+        attestationPdfRenderer.renderBook(participations, type, notes, verificationUrls, output);
+    }
+
+    private String archiveEntryName(Attestation attestation) {
+        Participation participation = attestation.getParticipation();
+        String name = String.format("%s_%s_%s_%d", attestation.getType(), participation.getUser().getLastname(),
+                participation.getUser().getFirstname(), participation.getId());
+        return name.replaceAll("[^A-Za-z0-9_-]", "_") + ".pdf";
     }
 
     private void regeneratePdfIfMissing(Attestation attestation) throws IOException {
-        Path directory = Paths.get(attestationsDirectory);
-        Files.createDirectories(directory);
-        String fileName = String.format("attestation_%d_%s_%d.pdf", attestation.getParticipation().getId(), attestation.getType(), System.currentTimeMillis());
-        Path filePath = directory.resolve(fileName);
-        generatePdfContent(attestation.getParticipation(), attestation.getType(), filePath);
-        attestation.setFilePath(filePath.toString());
+        renderAndStore(attestation, findNoteValue(attestation.getParticipation(), attestation.getType()));
+        attestation.setStatus(AttestationStatus.READY);
         attestationRepository.save(attestation);
     }
 
-    private void generatePdfContent(Participation participation, AttestationType type, Path filePath) throws IOException {
-        try (PdfWriter writer = new PdfWriter(filePath.toFile());
-             PdfDocument pdf = new PdfDocument(writer);
-             Document document = new Document(pdf)) {
+    private boolean isPending(Attestation attestation) {
+        return attestation.getStatus() == AttestationStatus.PENDING || attestation.getStatus() == AttestationStatus.RENDERING;
+    }
+
+    private boolean isReady(Attestation attestation) {
+        return attestation.getStatus() == null || attestation.getStatus() == AttestationStatus.READY;
+    }
+
+    private boolean isStored(Attestation attestation) {
+        if (attestation.getContentHash() != null) {
+            return attestationStorage.exists(attestation.getContentHash());
+        }
+        return !attestation.getFilePath().isEmpty() && Paths.get(attestation.getFilePath()).toFile().length() > 0;
+    }
 
-            document.setMargins(50, 50, 50, 50);
+    private void renderAndStore(Attestation attestation, Double note) throws IOException {
+        Path temporaryFile = attestationStorage.createTemporaryFile();
+        try {
+            attestationPdfRenderer.render(attestation.getParticipation(), attestation.getType(), note,
+                    verificationUrl(attestation, note), temporaryFile);
+            String contentHash = attestationStorage.store(temporaryFile);
+            attestation.setContentHash(contentHash);
+            attestation.setFilePath(attestationStorage.locate(contentHash));
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
 
-            Div borderDiv = new Div()
-                    .setBorder(new SolidBorder(new DeviceRgb(0, 0, 0), 2))
-                    .setPadding(50)
-                    .setMarginBottom(20);
+    private String verificationUrl(Attestation attestation, Double note) {
+        return attestationSignatureService.verificationUrl(attestationSignatureService.sign(attestation, note));
+    }
 
-            DeviceRgb darkGreen = new DeviceRgb(83, 242, 106);
+    /** Met le lot en file sur successBatchRunner et retourne l'identifiant de son rapport */
+    public String submitSuccessAttestations(String reason) {
+        String batchId = UUID.randomUUID().toString();
+        Map<String, Object> report = new HashMap<>();
+        report.put("status", "QUEUED");
+        report.put("reason", reason);
+        report.put("requestedAt", ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime());
+        saveSuccessBatchReport(batchId, report);
+        successBatchRunner.execute(() -> {
+            Map<String, Object> running = new HashMap<>(report);
+            running.put("status", "RUNNING");
+            running.put("startedAt", ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime());
+            saveSuccessBatchReport(batchId, running);
+            Map<String, Object> finished = new HashMap<>(running);
             try {
-                Path logoPath = Paths.get("front/public/logo.png");
-                if (Files.exists(logoPath)) {
-                    Image logo = new Image(ImageDataFactory.create(logoPath.toAbsolutePath().toString()));
-                    logo.setWidth(120);
-                    logo.setHorizontalAlignment(HorizontalAlignment.CENTER);
-                    borderDiv.add(logo);
-                } else {
-                    Paragraph logoTitle = new Paragraph("TXLFORMA")
-                            .setFontSize(36)
-                            .setBold()
-                            .setTextAlignment(TextAlignment.CENTER)
-                            .setMarginBottom(15)
-                            .setFontColor(darkGreen);
-                    borderDiv.add(logoTitle);
-                }
+                finished.putAll(runSuccessAttestationBatch());
+                finished.put("status", "COMPLETED");
             } catch (Exception e) {
-                Paragraph logoTitle = new Paragraph("TXLFORMA")
-                        .setFontSize(36)
-                        .setBold()
-                        .setTextAlignment(TextAlignment.CENTER)
-                        .setMarginBottom(15)
-                        .setFontColor(darkGreen);
-                borderDiv.add(logoTitle);
+                log.error("[AttestationService] Success attestation batch ({}) failed", reason, e);
+                finished.put("status", "FAILED");
+                finished.put("error", e.getClass().getSimpleName() + ": " + e.getMessage());
             }
+            finished.put("finishedAt", ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime());
+            saveSuccessBatchReport(batchId, finished);
+        });
+        return batchId;
+    }
 
-            Paragraph title = new Paragraph("ATTESTATION")
-                    .setFontSize(30)
-                    .setBold()
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(10);
-            borderDiv.add(title);
-
-            Paragraph typeParagraph = new Paragraph(type == AttestationType.PRESENCE ? "DE PRÉSENCE" : "DE SUCCÈS")
-                    .setFontSize(22)
-                    .setBold()
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(40)
-                    .setFontColor(darkGreen);
-            borderDiv.add(typeParagraph);
-
-            Paragraph text = new Paragraph();
-            text.add(new Text("Je soussigné(e), représentant de TXLFORMA, certifie que :\n\n").setFontSize(13));
-            text.add(new Text(participation.getUser().getFirstname() + " " + participation.getUser().getLastname())
-                    .setBold()
-                    .setFontSize(15));
-            text.add(new Text("\n\n").setFontSize(13));
-            text.add(new Text("a " + (type == AttestationType.PRESENCE ? "assisté à" : "réussi") + " la formation :\n\n").setFontSize(13));
-            text.add(new Text(participation.getSession().getFormation().getTitle())
-                    .setBold()
-                    .setFontSize(15));
-            text.add(new Text("\n\n").setFontSize(13));
-            text.add(new Text("Session du " + participation.getSession().getStartDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) +
-                    " au " + participation.getSession().getEndDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))).setFontSize(13));
-            text.add(new Text("\n\n").setFontSize(13));
-            text.add(new Text("Lieu : " + participation.getSession().getLocation()).setFontSize(13));
-
-            if (type == AttestationType.SUCCES) {
-                Note note = noteRepository.findByParticipationId(participation.getId()).orElse(null);
-                if (note != null) {
-                    text.add(new Text("\n\n").setFontSize(13));
-                    text.add(new Text("Note obtenue : " + note.getNote() + "/20").setBold().setFontSize(14));
-                }
+    public Map<String, Object> getSuccessBatchReport(String batchId) {
+        synchronized (successBatchReports) {
+            Map<String, Object> report = successBatchReports.get(batchId);
+            if (report == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Rapport de lot introuvable");
             }
+            return report;
+        }
+    }
 
-            text.add(new Text("\n\n\n").setFontSize(13));
-            text.add(new Text("Fait à " + ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))).setFontSize(13));
-            text.add(new Text("\n\n").setFontSize(13));
-            text.add(new Text("TXLFORMA").setBold().setFontSize(16).setFontColor(darkGreen));
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSuccessAttestationsRequested(SuccessAttestationsRequestedEvent event) {
+        submitSuccessAttestations(event.getReason());
+    }
 
-            borderDiv.add(text);
-            document.add(borderDiv);
+    private void saveSuccessBatchReport(String batchId, Map<String, Object> report) {
+        Map<String, Object> snapshot = new HashMap<>(report);
+        snapshot.put("batchId", batchId);
+        synchronized (successBatchReports) {
+            successBatchReports.put(batchId, Collections.unmodifiableMap(snapshot));
+            if (successBatchReports.size() > SUCCESS_BATCH_REPORTS) {
+                successBatchReports.remove(successBatchReports.keySet().iterator().next());
+            }
         }
     }
 
-    @Transactional
-    public void generateSuccessAttestations() {
-        LocalDate today = ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDate();
-        List<Participation> validParticipations = participationRepository.findAll().stream()
-                .filter(participation -> isDeadlinePassed(participation.getSession().getEndDate(), today))
-                .filter(participation -> hasValidNote(participation.getId()))
-                .filter(participation -> !hasSuccessAttestation(participation.getId()))
-                .toList();
-
-        for (Participation participation : validParticipations) {
-            try {
-                if (participation.getStatus() != ParticipationStatus.VALIDE) {
-                    participation.setStatus(ParticipationStatus.VALIDE);
-                    participationRepository.save(participation);
+    private Map<String, Object> runSuccessAttestationBatch() {
+        long startedAt = System.nanoTime();
+        LocalDate lastEndDate = ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDate().minusDays(14);
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        int threads = batchThreads > 0 ? batchThreads : Runtime.getRuntime().availableProcessors();
+
+        long eligible = 0;
+        long generated = 0;
+        long failed = 0;
+        int chunks = 0;
+        long afterId = 0;
+        try (ExecutorService renderPool = Executors.newFixedThreadPool(threads)) {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Object[]> rows = participationRepository.findSuccessEligibleAfterId(afterId, lastEndDate,
+                        AttestationType.SUCCES, PageRequest.of(0, batchChunkSize));
+                if (rows.isEmpty()) {
+                    break;
                 }
-                createAttestation(participation, AttestationType.SUCCES);
-            } catch (IOException ignored) {
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+                Map<Long, Double> notes = new HashMap<>();
+                rows.forEach(row -> notes.put((Long) row[0], (Double) row[1]));
+
+                List<Participation> participations = participationRepository.findWithUserAndSessionByIdIn(notes.keySet());
+                List<Attestation> created = chunkTransaction.execute(status -> createSuccessAttestations(participations));
+                List<Future<Attestation>> renders = new ArrayList<>();
+                for (Attestation attestation : created) {
+                    renders.add(renderPool.submit(() -> renderSuccessAttestation(attestation,
+                            notes.get(attestation.getParticipation().getId()))));
+                }
+                List<Attestation> rendered = new ArrayList<>();
+                List<Long> released = new ArrayList<>();
+                for (int index = 0; index < renders.size(); index++) {
+                    try {
+                        rendered.add(renders.get(index).get());
+                    } catch (ExecutionException executionException) {
+                        failed++;
+                        released.add(created.get(index).getId());
+                        log.warn("[AttestationService] Success attestation rendering failed", executionException.getCause());
+                    } catch (InterruptedException interruptedException) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                // Les échecs repassent en PENDING : la file de rendu les reprend avec ses propres tentatives
+                chunkTransaction.executeWithoutResult(status -> {
+                    completeSuccessAttestations(rendered);
+                    if (!released.isEmpty()) {
+                        attestationRepository.updateStatusByIdIn(released, AttestationStatus.RENDERING, AttestationStatus.PENDING);
+                    }
+                });
+
+                eligible += rows.size();
+                generated += rendered.size();
+                chunks++;
+                log.info("[AttestationService] Success attestations chunk {}: {} generated, {} failed, {} ms elapsed",
+                        chunks, generated, failed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
             }
         }
+        if (generated > 0) {
+            eventPublisher.publishEvent(new StatisticsChangedEvent(StatisticsTopic.ATTESTATION));
+        }
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        Map<String, Object> report = new HashMap<>();
+        report.put("eligible", eligible);
+        report.put("generated", generated);
+        report.put("failed", failed);
+        report.put("chunks", chunks);
+        report.put("threads", threads);
+        report.put("durationMs", durationMs);
+        report.put("attestationsPerSecond", durationMs > 0 ? Math.round(generated * 1000.0 / durationMs * 100.0) / 100.0 : generated);
+        log.info("[AttestationService] Success attestation batch finished: {}", report);
+        return report;
+    }
+
+    private List<Attestation> createSuccessAttestations(List<Participation> participations) {
+        if (participations.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime generatedAt = ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime();
+        List<Attestation> attestations = participations.stream()
+                .map(participation -> Attestation.builder()
+                        .participation(participation)
+                        .type(AttestationType.SUCCES)
+                        .filePath("")
+                        .status(AttestationStatus.RENDERING)
+                        .generatedAt(generatedAt)
+                        .build())
+                .toList();
+        participationRepository.updateStatusByIdIn(participations.stream().map(Participation::getId).toList(),
+                ParticipationStatus.VALIDE, generatedAt);
+        List<Attestation> saved = attestationRepository.saveAll(attestations);
+        saved.forEach(statisticsRollupService::recordAttestation);
+        // Publié dans la transaction du lot : le cache n'est invalidé qu'une fois le lot validé
+        eventPublisher.publishEvent(new StatisticsChangedEvent(StatisticsTopic.PARTICIPATION));
+        return saved;
     }
 
-    private boolean isDeadlinePassed(LocalDate endDate, LocalDate today) {
-        if (endDate == null) return false;
-        LocalDate deadline = endDate.plusDays(14);
-        return !today.isBefore(deadline);
+    private Attestation renderSuccessAttestation(Attestation attestation, Double note) throws IOException {
+        renderAndStore(attestation, note);
+        return attestation;
     }
 
-    private boolean hasValidNote(Long participationId) {
-        return noteRepository.findByParticipationId(participationId)
-                .map(note -> note.getNote() >= 10)
-                .orElse(false);
+    private void completeSuccessAttestations(List<Attestation> attestations) {
+        for (Attestation attestation : attestations) {
+            int updated = attestationRepository.updateStoredContent(attestation.getId(), attestation.getContentHash(),
+                    attestation.getFilePath(), AttestationStatus.RENDERING, AttestationStatus.READY);
+            if (updated == 0) {
+                log.warn("[AttestationService] Attestation {} was reclaimed by the render queue, batch output discarded",
+                        attestation.getId());
+                if (!attestationRepository.existsByContentHash(attestation.getContentHash())) {
+                    try {
+                        attestationStorage.delete(attestation.getContentHash());
+                    } catch (IOException e) {
+                        log.warn("[AttestationService] Failed to delete discarded attestation file {}", attestation.getFilePath(), e);
+                    }
+                }
+            }
+        }
     }
 
-    private boolean hasSuccessAttestation(Long participationId) {
-        return attestationRepository.findByParticipationIdAndType(participationId, AttestationType.SUCCES).isPresent();
+    private Double findNoteValue(Participation participation, AttestationType type) {
+        if (type != AttestationType.SUCCES) {
+            return null;
+        }
+        return noteRepository.findByParticipationId(participation.getId())
+                .map(Note::getNote)
+                .orElse(null);
     }
 
     private Attestation createAttestation(Participation participation, AttestationType type) throws IOException {
-        String filePath = generatePdf(participation, type);
         Attestation attestation = Attestation.builder()
                 .participation(participation)
                 .type(type)
-                .filePath(filePath)
+                .filePath("")
                 .generatedAt(ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime())
                 .build();
-        return attestationRepository.save(attestation);
+        attestation = attestationRepository.save(attestation);
+        renderAndStore(attestation, findNoteValue(participation, type));
+        statisticsRollupService.recordAttestation(attestation);
+        eventPublisher.publishEvent(new StatisticsChangedEvent(StatisticsTopic.ATTESTATION));
+        return attestation;
     }
 
     private AttestationType determineAttestationType(Participation participation) {
@@ -289,13 +537,4 @@ public class AttestationService {
 
         return null;
     }
-
-    private String generatePdf(Participation participation, AttestationType type) throws IOException {
-        Path directory = Paths.get(attestationsDirectory);
-        Files.createDirectories(directory);
-        String fileName = String.format("attestation_%d_%s_%d.pdf", participation.getId(), type, System.currentTimeMillis());
-        Path filePath = directory.resolve(fileName);
-        generatePdfContent(participation, type, filePath);
-        return filePath.toString();
-    }
 }
@@ -0,0 +1,109 @@
+package mmi.osaas.txlforma.service;
+
+import jakarta.annotation.PostConstruct;
+import mmi.osaas.txlforma.enums.AttestationType;
+import mmi.osaas.txlforma.model.Attestation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class AttestationSignatureService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_BYTES = 16;
+    private static final int MAX_CODE_LENGTH = 128;
+
+    @Value("${app.verification.secret}")
+    private String secret;
+
+    @Value("${app.verification.base-url:http://localhost:8080}")
+    private String baseUrl;
+
+    private ThreadLocal<Mac> macs;
+
+    @PostConstruct
+    public void init() {
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+        if (key.length < 32) {
+            throw new IllegalStateException("app.verification.secret doit contenir au moins 32 caractères");
+        }
+        SecretKeySpec keySpec = new SecretKeySpec(key, ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(keySpec);
+                return mac;
+            } catch (GeneralSecurityException securityException) {
+                throw new IllegalStateException(securityException);
+            }
+        });
+    }
+
+    /**
+     * Code compact "attestationId.participationId.type.note.signature" imprimé dans le QR code
+     */
+    public String sign(Attestation attestation, Double note) {
+        String payload = attestation.getId() + "." + attestation.getParticipation().getId() + "." +
+                attestation.getType().name().charAt(0) + "." + (note != null ? note : "");
+        return payload + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature(payload));
+    }
+
+    public String verificationUrl(String code) {
+        return baseUrl + "/api/attestations/verify?code=" + code;
+    }
+
+    /** Vérifie la signature sans accès à la base de données */
+    public Map<String, Object> verify(String code) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("valid", false);
+        if (code == null || code.length() > MAX_CODE_LENGTH) {
+            return result;
+        }
+        int separator = code.lastIndexOf('.');
+        String[] fields = separator > 0 ? code.substring(0, separator).split("\\.", 4) : new String[0];
+        if (fields.length != 4) {
+            return result;
+        }
+
+        byte[] provided;
+        try {
+            provided = Base64.getUrlDecoder().decode(code.substring(separator + 1));
+        } catch (IllegalArgumentException illegalArgumentException) {
+            return result;
+        }
+        if (!MessageDigest.isEqual(signature(code.substring(0, separator)), provided)) {
+            return result;
+        }
+
+        try {
+            AttestationType type = Arrays.stream(AttestationType.values())
+                    .filter(value -> fields[2].length() == 1 && value.name().charAt(0) == fields[2].charAt(0))
+                    .findFirst()
+                    .orElseThrow(IllegalArgumentException::new);
+            result.put("attestationId", Long.parseLong(fields[0]));
+            result.put("participationId", Long.parseLong(fields[1]));
+            result.put("type", type);
+            result.put("note", fields[3].isEmpty() ? null : Double.parseDouble(fields[3]));
+            result.put("valid", true);
+        } catch (IllegalArgumentException illegalArgumentException) {
+            result.clear();
+            result.put("valid", false);
+        }
+        return result;
+    }
+
+    private byte[] signature(String payload) {
+        byte[] digest = macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Arrays.copyOf(digest, SIGNATURE_BYTES);
+    }
+}
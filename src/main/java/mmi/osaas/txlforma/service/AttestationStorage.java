@@ -0,0 +1,26 @@
+package mmi.osaas.txlforma.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Backend holding rendered attestation PDFs, addressed by the SHA-256 of their content.
+ */
+public interface AttestationStorage {
+
+    Path createTemporaryFile() throws IOException;
+
+    String store(Path source) throws IOException;
+
+    boolean exists(String contentHash);
+
+    boolean verify(String contentHash) throws IOException;
+
+    Resource load(String contentHash);
+
+    String locate(String contentHash);
+
+    void delete(String contentHash) throws IOException;
+}
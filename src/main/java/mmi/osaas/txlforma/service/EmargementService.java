@@ -61,11 +61,9 @@ public class EmargementService {
         emargement = emargementRepository.save(emargement);
         participation.setStatus(ParticipationStatus.PRESENT);
         participation.setParticipationAt(ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime());
+        participation.setUpdatedAt(participation.getParticipationAt());
         participationRepository.save(participation);
-        try {
-            attestationService.generateAttestation(participationId);
-        } catch (Exception ignored) {
-        }
+        attestationService.requestAttestation(participationId);
         return emargement;
     }
 
@@ -14,6 +14,8 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.List;
 
 @Service
@@ -43,6 +45,7 @@ public class FormationService {
                 .category(category)
                 .imageUrl(dto.getImageUrl())
                 .createdAt(LocalDateTime.now())
+                .updatedAt(ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime())
                 .build());
     }
 
@@ -57,6 +60,7 @@ public class FormationService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Catégorie introuvable"));
         existing.setCategory(category);
         existing.setImageUrl(dto.getImageUrl());
+        existing.setUpdatedAt(ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime());
 
         return formationRepository.save(existing);
     }
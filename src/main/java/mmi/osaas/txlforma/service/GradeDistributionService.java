@@ -0,0 +1,128 @@
+package mmi.osaas.txlforma.service;
+
+import lombok.RequiredArgsConstructor;
+import mmi.osaas.txlforma.event.NoteChangedEvent;
+import mmi.osaas.txlforma.repository.NoteRepository;
+import mmi.osaas.txlforma.repository.SessionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class GradeDistributionService {
+
+    private static final int BUCKETS = 41;
+
+    private final NoteRepository noteRepository;
+    private final SessionRepository sessionRepository;
+
+    private final long[] global = new long[BUCKETS];
+    private final Map<Long, long[]> bySession = new HashMap<>();
+    private final Map<Long, Integer> noteBuckets = new HashMap<>();
+    private boolean loaded;
+
+    /**
+     * Tant que rien n'est chargé, l'événement est ignoré : la note est déjà validée et sera lue par le chargement.
+     * Appliquer un événement fixe le palier de la note, le rejouer après le chargement ne compte donc rien deux fois
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onNoteChanged(NoteChangedEvent event) {
+        if (loaded) {
+            put(event.getNoteId(), event.getSessionId(), event.getNote());
+        }
+    }
+
+    public Map<String, Object> getDistribution(Long sessionId, Long formationId, Long formateurId) {
+        // Formation et formateur sont résolus au moment de la requête : une session réaffectée suit sa nouvelle clé
+        List<Long> sessionIds = null;
+        if (sessionId != null) {
+            sessionIds = List.of(sessionId);
+        } else if (formationId != null) {
+            sessionIds = sessionRepository.findIdsByFormationId(formationId);
+        } else if (formateurId != null) {
+            sessionIds = sessionRepository.findIdsByFormateurId(formateurId);
+        }
+
+        long[] counts = new long[BUCKETS];
+        synchronized (this) {
+            if (!loaded) {
+                load();
+            }
+            if (sessionIds == null) {
+                System.arraycopy(global, 0, counts, 0, BUCKETS);
+            } else {
+                for (Long id : sessionIds) {
+                    long[] sessionCounts = bySession.get(id);
+                    if (sessionCounts != null) {
+                        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                            counts[bucket] += sessionCounts[bucket];
+                        }
+                    }
+                }
+            }
+        }
+
+        long total = 0;
+        List<Map<String, Object>> buckets = new ArrayList<>(BUCKETS);
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            total += counts[bucket];
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("note", bucket / 2.0);
+            entry.put("count", counts[bucket]);
+            buckets.add(entry);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("total", total);
+        result.put("p50", percentile(counts, total, 0.5));
+        result.put("p90", percentile(counts, total, 0.9));
+        result.put("buckets", buckets);
+        return result;
+    }
+
+    private void load() {
+        for (Object[] row : noteRepository.findGradeRows()) {
+            put((Long) row[0], (Long) row[1], (Double) row[2]);
+        }
+        loaded = true;
+    }
+
+    private void put(Long noteId, Long sessionId, double note) {
+        int bucket = bucketOf(note);
+        Integer previous = noteBuckets.put(noteId, bucket);
+        if (previous != null && previous == bucket) {
+            return;
+        }
+        long[] sessionCounts = bySession.computeIfAbsent(sessionId, id -> new long[BUCKETS]);
+        if (previous != null) {
+            global[previous]--;
+            sessionCounts[previous]--;
+        }
+        global[bucket]++;
+        sessionCounts[bucket]++;
+    }
+
+    private int bucketOf(double note) {
+        return Math.max(0, Math.min(BUCKETS - 1, (int) Math.floor(note * 2)));
+    }
+
+    private Double percentile(long[] counts, long total, double percentile) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long cumulative = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            cumulative += counts[bucket];
+            if (cumulative >= rank) {
+                return bucket / 2.0;
+            }
+        }
+        return (BUCKETS - 1) / 2.0;
+    }
+}
@@ -0,0 +1,90 @@
+package mmi.osaas.txlforma.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+@Service
+@ConditionalOnProperty(name = "app.attestations.storage", havingValue = "local", matchIfMissing = true)
+public class LocalAttestationStorage implements AttestationStorage {
+
+    @Value("${app.attestations.directory:attestations}")
+    private String attestationsDirectory;
+
+    @Override
+    public Path createTemporaryFile() throws IOException {
+        Path directory = Paths.get(attestationsDirectory, "tmp");
+        Files.createDirectories(directory);
+        return Files.createTempFile(directory, "attestation-", ".pdf");
+    }
+
+    @Override
+    public String store(Path source) throws IOException {
+        String contentHash = hash(source);
+        Path target = pathOf(contentHash);
+        if (Files.exists(target)) {
+            Files.deleteIfExists(source);
+            return contentHash;
+        }
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        return contentHash;
+    }
+
+    @Override
+    public boolean exists(String contentHash) {
+        return Files.exists(pathOf(contentHash));
+    }
+
+    @Override
+    public boolean verify(String contentHash) throws IOException {
+        Path file = pathOf(contentHash);
+        return Files.exists(file) && contentHash.equals(hash(file));
+    }
+
+    @Override
+    public Resource load(String contentHash) {
+        return new FileSystemResource(pathOf(contentHash));
+    }
+
+    @Override
+    public String locate(String contentHash) {
+        return pathOf(contentHash).toString();
+    }
+
+    @Override
+    public void delete(String contentHash) throws IOException {
+        Files.deleteIfExists(pathOf(contentHash));
+    }
+
+    private Path pathOf(String contentHash) {
+        return Paths.get(attestationsDirectory, contentHash.substring(0, 2), contentHash.substring(2, 4), contentHash + ".pdf");
+    }
+
+    private String hash(Path source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+            throw new IllegalStateException(noSuchAlgorithmException);
+        }
+        try (InputStream input = new DigestInputStream(Files.newInputStream(source), digest)) {
+            input.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -3,6 +3,10 @@ package mmi.osaas.txlforma.service;
 import lombok.RequiredArgsConstructor;
 import mmi.osaas.txlforma.dto.NoteDTO;
 import mmi.osaas.txlforma.enums.ParticipationStatus;
+import mmi.osaas.txlforma.enums.StatisticsTopic;
+import mmi.osaas.txlforma.event.NoteChangedEvent;
+import mmi.osaas.txlforma.event.StatisticsChangedEvent;
+import mmi.osaas.txlforma.event.SuccessAttestationsRequestedEvent;
 import mmi.osaas.txlforma.exception.NoteLockedException;
 import mmi.osaas.txlforma.model.Note;
 import mmi.osaas.txlforma.model.Participation;
@@ -10,7 +14,7 @@ import mmi.osaas.txlforma.model.Session;
 import mmi.osaas.txlforma.model.User;
 import mmi.osaas.txlforma.repository.NoteRepository;
 import mmi.osaas.txlforma.repository.ParticipationRepository;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,8 +32,8 @@ public class NoteService {
 
     private final NoteRepository noteRepository;
     private final ParticipationRepository participationRepository;
-    @Lazy
-    private final AttestationService attestationService;
+    private final StatisticsRollupService statisticsRollupService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public NoteDTO createNote(Long participationId, Double noteValue, Long formateurId) {
@@ -60,7 +64,11 @@ public class NoteService {
                 .createdAt(ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime())
                 .locked(false)
                 .build();
-        return toNoteDTO(noteRepository.save(note));
+        note = noteRepository.save(note);
+        statisticsRollupService.recordNote(note);
+        eventPublisher.publishEvent(new StatisticsChangedEvent(StatisticsTopic.NOTE));
+        eventPublisher.publishEvent(new NoteChangedEvent(note.getId(), session.getId(), note.getNote()));
+        return toNoteDTO(note);
     }
 
     @Transactional
@@ -81,9 +89,15 @@ public class NoteService {
         if (noteValue < 0 || noteValue > 20) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La note doit être entre 0 et 20");
         }
+        double previousValue = note.getNote();
         note.setNote(noteValue);
         note.setModifiedAt(ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime());
-        return toNoteDTO(noteRepository.save(note));
+        note = noteRepository.save(note);
+        statisticsRollupService.recordNoteChange(note, previousValue);
+        eventPublisher.publishEvent(new StatisticsChangedEvent(StatisticsTopic.NOTE));
+        Session session = note.getParticipation().getSession();
+        eventPublisher.publishEvent(new NoteChangedEvent(note.getId(), session.getId(), note.getNote()));
+        return toNoteDTO(note);
     }
 
     public List<NoteDTO> getNotesBySession(Long sessionId) {
@@ -148,10 +162,12 @@ public class NoteService {
                 Participation participation = note.getParticipation();
                 if (participation.getStatus() != ParticipationStatus.VALIDE) {
                     participation.setStatus(ParticipationStatus.VALIDE);
+                    participation.setUpdatedAt(ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime());
                     participationRepository.save(participation);
+                    eventPublisher.publishEvent(new StatisticsChangedEvent(StatisticsTopic.PARTICIPATION));
                 }
             }
         }
-        attestationService.generateSuccessAttestations();
+        eventPublisher.publishEvent(new SuccessAttestationsRequestedEvent("notes-locked"));
     }
 }
@@ -10,16 +10,24 @@ import com.stripe.net.Webhook;
 import lombok.RequiredArgsConstructor;
 import mmi.osaas.txlforma.enums.PaiementStatus;
 import mmi.osaas.txlforma.enums.PanierStatus;
+import mmi.osaas.txlforma.enums.StatisticsTopic;
+import mmi.osaas.txlforma.enums.WebhookEventStatus;
+import mmi.osaas.txlforma.event.ParticipationCreatedEvent;
+import mmi.osaas.txlforma.event.StatisticsChangedEvent;
+import mmi.osaas.txlforma.event.WebhookEventReceivedEvent;
 import mmi.osaas.txlforma.model.Paiement;
 import mmi.osaas.txlforma.model.Panier;
 import mmi.osaas.txlforma.model.PanierSession;
 import mmi.osaas.txlforma.model.Participation;
+import mmi.osaas.txlforma.model.WebhookEvent;
 import mmi.osaas.txlforma.repository.PaiementRepository;
 import mmi.osaas.txlforma.repository.PanierRepository;
 import mmi.osaas.txlforma.repository.PanierSessionRepository;
 import mmi.osaas.txlforma.repository.ParticipationRepository;
 import mmi.osaas.txlforma.repository.SessionRepository;
+import mmi.osaas.txlforma.repository.WebhookEventRepository;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -28,6 +36,9 @@ import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.annotation.PostConstruct;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -53,6 +64,9 @@ public class PaiementService {
     private final PanierSessionRepository panierSessionRepository;
     private final ParticipationRepository participationRepository;
     private final SessionRepository sessionRepository;
+    private final WebhookEventRepository webhookEventRepository;
+    private final StatisticsRollupService statisticsRollupService;
+    private final ApplicationEventPublisher eventPublisher;
     
     private static final Map<String, Object> PAYMENT_LOCKS = new ConcurrentHashMap<>();
 
@@ -124,37 +138,60 @@ public class PaiementService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Panier introuvable"));
     }
 
-    @Transactional
-    public void handleWebhook(String payload, String signature) {
+    public void receiveWebhook(String payload, String signature) {
+        com.stripe.model.Event event;
         try {
-            com.stripe.model.Event event = Webhook.constructEvent(payload, signature, webhookSecret);
-            
-            if (!"checkout.session.completed".equals(event.getType())) {
-                return;
-            }
-
-            Session checkoutSession = (Session) event.getDataObjectDeserializer()
-                    .getObject()
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "CheckoutSession introuvable"));
-            
-            String panierIdStr = checkoutSession.getMetadata().get("panier_id");
-            String paymentIntentId = checkoutSession.getPaymentIntent();
-            
-            if (panierIdStr == null || paymentIntentId == null) {
-                return;
-            }
-            
-            Object paymentLock = PAYMENT_LOCKS.computeIfAbsent(paymentIntentId, k -> new Object());
-            synchronized (paymentLock) {
-                try {
-                    processPayment(checkoutSession, paymentIntentId, panierIdStr);
-                } finally {
-                    PAYMENT_LOCKS.remove(paymentIntentId);
-                }
-            }
+            event = Webhook.constructEvent(payload, signature, webhookSecret);
         } catch (StripeException stripeException) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Erreur Stripe");
         }
+
+        if (!"checkout.session.completed".equals(event.getType()) || webhookEventRepository.existsByEventId(event.getId())) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        WebhookEvent webhookEvent;
+        try {
+            webhookEvent = webhookEventRepository.saveAndFlush(WebhookEvent.builder()
+                    .eventId(event.getId())
+                    .type(event.getType())
+                    .payload(payload)
+                    .signature(signature)
+                    .status(WebhookEventStatus.PENDING)
+                    .nextAttemptAt(now)
+                    .receivedAt(now)
+                    .build());
+        } catch (DataIntegrityViolationException integrityException) {
+            // Livraison concurrente du même événement : déjà enregistrée, on acquitte
+            return;
+        }
+        eventPublisher.publishEvent(new WebhookEventReceivedEvent(webhookEvent.getId()));
+    }
+
+    @Transactional
+    public void processWebhookEvent(String payload, String signature) throws StripeException {
+        com.stripe.model.Event event = Webhook.constructEvent(payload, signature, webhookSecret, 0);
+
+        Session checkoutSession = (Session) event.getDataObjectDeserializer()
+                .getObject()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "CheckoutSession introuvable"));
+
+        String panierIdStr = checkoutSession.getMetadata().get("panier_id");
+        String paymentIntentId = checkoutSession.getPaymentIntent();
+
+        if (panierIdStr == null || paymentIntentId == null) {
+            return;
+        }
+
+        Object paymentLock = PAYMENT_LOCKS.computeIfAbsent(paymentIntentId, k -> new Object());
+        synchronized (paymentLock) {
+            try {
+                processPayment(checkoutSession, paymentIntentId, panierIdStr);
+            } finally {
+                PAYMENT_LOCKS.remove(paymentIntentId);
+            }
+        }
     }
 
     @Transactional
@@ -235,6 +272,7 @@ public class PaiementService {
                         .build();
                 
                 paiement = paiementRepository.save(paiement);
+                eventPublisher.publishEvent(new StatisticsChangedEvent(StatisticsTopic.PAIEMENT));
             } catch (DataIntegrityViolationException integrityException) {
                 paiement = paiementRepository.findByPaymentIntentId(paymentIntentId)
                         .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Paiement introuvable"));
@@ -261,25 +299,32 @@ public class PaiementService {
             return;
         }
         
-        String[] sessionIds = sessionIdsStr.split(",");
+        List<mmi.osaas.txlforma.model.Session> sessions = new ArrayList<>();
+        for (String sessionIdStr : sessionIdsStr.split(",")) {
+            try {
+                sessionRepository.findById(Long.parseLong(sessionIdStr.trim())).ifPresent(sessions::add);
+            } catch (NumberFormatException numberFormatException) {
+            }
+        }
+        // Le paiement couvre tout le panier : chaque participation reçoit sa part au prorata du prix de la session
+        double totalPrice = sessions.stream().mapToDouble(mmi.osaas.txlforma.model.Session::getPrice).sum();
         
-        for (String sessionIdStr : sessionIds) {
+        for (mmi.osaas.txlforma.model.Session session : sessions) {
             try {
-                Long sessionId = Long.parseLong(sessionIdStr.trim());
-                mmi.osaas.txlforma.model.Session session = sessionRepository.findById(sessionId).orElse(null);
-                if (session == null) {
-                    continue;
-                }
-                
-                participationRepository.save(Participation.builder()
+                double share = totalPrice > 0 ? session.getPrice() / totalPrice : 1.0 / sessions.size();
+                Participation participation = participationRepository.save(Participation.builder()
                         .user(paiement.getUser())
                         .session(session)
                         .paiement(paiement)
                         .status(mmi.osaas.txlforma.enums.ParticipationStatus.INSCRIT)
+                        .amountPaid(Math.round(paiement.getAmount() * share * 100.0) / 100.0)
                         .createdAt(LocalDateTime.now())
+                        .updatedAt(ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime())
                         .build());
+                statisticsRollupService.recordParticipation(participation);
+                eventPublisher.publishEvent(new ParticipationCreatedEvent(session.getFormation().getId(),
+                        paiement.getUser().getId(), participation.getCreatedAt()));
             } catch (DataIntegrityViolationException integrityException) {
-            } catch (NumberFormatException numberFormatException) {
             }
         }
     }
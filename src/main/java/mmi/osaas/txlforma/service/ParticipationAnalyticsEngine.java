@@ -0,0 +1,257 @@
+package mmi.osaas.txlforma.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mmi.osaas.txlforma.enums.PaiementStatus;
+import mmi.osaas.txlforma.enums.ParticipationStatus;
+import mmi.osaas.txlforma.repository.NoteRepository;
+import mmi.osaas.txlforma.repository.ParticipationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.analytics.enabled", havingValue = "true")
+public class ParticipationAnalyticsEngine {
+
+    private static final int ANY = -1;
+    private static final ParticipationStatus[] STATUSES = ParticipationStatus.values();
+
+    private final ParticipationRepository participationRepository;
+    private final NoteRepository noteRepository;
+
+    @Value("${app.analytics.batch-size:5000}")
+    private int batchSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int size;
+    private long[] participationIds = new long[1024];
+    private long[] sessionIds = new long[1024];
+    private long[] formationIds = new long[1024];
+    private long[] categoryIds = new long[1024];
+    private long[] formateurIds = new long[1024];
+    private int[] startEpochDays = new int[1024];
+    private long[] amountCents = new long[1024];
+    private byte[] statusOrdinals = new byte[1024];
+    private float[] grades = new float[1024];
+
+    private volatile LocalDateTime gradesRefreshedAt;
+    private volatile LocalDateTime lastRefreshAt;
+
+    @Scheduled(initialDelayString = "${app.analytics.initial-delay-ms:0}", fixedDelayString = "${app.analytics.refresh-ms:60000}")
+    public void refresh() {
+        try {
+            LocalDateTime refreshStartedAt = ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime();
+            appendNewParticipations();
+            if (lastRefreshAt != null) {
+                // Le recouvrement rattrape aussi les identifiants validés hors ordre, absents du keyset
+                refreshChangedFacts(lastRefreshAt.minusMinutes(1));
+            }
+            refreshGrades(gradesRefreshedAt != null ? gradesRefreshedAt.minusMinutes(1) : LocalDateTime.of(1970, 1, 1, 0, 0));
+            gradesRefreshedAt = refreshStartedAt;
+            lastRefreshAt = refreshStartedAt;
+        } catch (Exception e) {
+            log.error("[ParticipationAnalyticsEngine] Failed to refresh participation facts", e);
+        }
+    }
+
+    public Map<String, Object> query(Long categoryId, Long formationId, Long sessionId, Long formateurId,
+                                     LocalDate startDate, LocalDate endDate) {
+        long session = sessionId != null ? sessionId : ANY;
+        long category = categoryId != null ? categoryId : ANY;
+        long formation = formationId != null ? formationId : ANY;
+        long formateur = formateurId != null ? formateurId : ANY;
+        int fromDay = startDate != null ? (int) startDate.toEpochDay() : Integer.MIN_VALUE;
+        int toDay = endDate != null ? (int) endDate.toEpochDay() : Integer.MAX_VALUE;
+
+        long participants = 0;
+        long revenueCents = 0;
+        long graded = 0;
+        long success = 0;
+        double gradeSum = 0;
+        long[] statusCounts = new long[STATUSES.length];
+        int rows;
+
+        lock.readLock().lock();
+        try {
+            rows = size;
+            for (int row = 0; row < rows; row++) {
+                if ((category != ANY && categoryIds[row] != category)
+                        || (formation != ANY && formationIds[row] != formation)
+                        || (session != ANY && sessionIds[row] != session)
+                        || (formateur != ANY && formateurIds[row] != formateur)
+                        || startEpochDays[row] < fromDay
+                        || startEpochDays[row] > toDay) {
+                    continue;
+                }
+                participants++;
+                revenueCents += amountCents[row];
+                statusCounts[statusOrdinals[row]]++;
+                float grade = grades[row];
+                if (!Float.isNaN(grade)) {
+                    graded++;
+                    gradeSum += grade;
+                    if (grade >= 10) {
+                        success++;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, Long> byStatus = new HashMap<>();
+        for (ParticipationStatus status : STATUSES) {
+            byStatus.put(status.toString(), statusCounts[status.ordinal()]);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("participants", participants);
+        result.put("revenue", revenueCents / 100.0);
+        result.put("graded", graded);
+        result.put("averageNote", graded > 0 ? Math.round(gradeSum / graded * 100.0) / 100.0 : 0.0);
+        result.put("success", success);
+        result.put("successRate", participants > 0 ? Math.round((double) success / participants * 10000.0) / 100.0 : 0.0);
+        result.put("byStatus", byStatus);
+        result.put("rowsScanned", rows);
+        result.put("refreshedAt", lastRefreshAt);
+        return result;
+    }
+
+    private void appendNewParticipations() {
+        while (true) {
+            long afterId = lastParticipationId();
+            List<Object[]> facts = participationRepository.findFactsAfterId(afterId, PageRequest.of(0, batchSize));
+            if (facts.isEmpty()) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                ensureCapacity(size + facts.size());
+                for (Object[] fact : facts) {
+                    writeFact(size++, fact);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (facts.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private void refreshChangedFacts(LocalDateTime since) {
+        long afterId = 0;
+        while (true) {
+            List<Object[]> facts = participationRepository.findFactsChangedSince(since, afterId, PageRequest.of(0, batchSize));
+            if (facts.isEmpty()) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                for (Object[] fact : facts) {
+                    int row = Arrays.binarySearch(participationIds, 0, size, (Long) fact[0]);
+                    if (row < 0) {
+                        row = insertRow(-row - 1);
+                    }
+                    writeFact(row, fact);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            afterId = (Long) facts.get(facts.size() - 1)[0];
+            if (facts.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private void refreshGrades(LocalDateTime since) {
+        List<Object[]> changedGrades = noteRepository.findGradesChangedSince(since);
+        lock.writeLock().lock();
+        try {
+            for (Object[] grade : changedGrades) {
+                int row = rowOf((Long) grade[0]);
+                if (row >= 0) {
+                    grades[row] = ((Double) grade[1]).floatValue();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void writeFact(int row, Object[] fact) {
+        participationIds[row] = (Long) fact[0];
+        sessionIds[row] = (Long) fact[1];
+        formationIds[row] = (Long) fact[2];
+        categoryIds[row] = fact[3] != null ? (Long) fact[3] : ANY;
+        formateurIds[row] = (Long) fact[4];
+        startEpochDays[row] = (int) ((LocalDate) fact[5]).toEpochDay();
+        amountCents[row] = fact[8] == PaiementStatus.SUCCEEDED ? Math.round((Double) fact[6] * 100) : 0;
+        statusOrdinals[row] = (byte) ((ParticipationStatus) fact[7]).ordinal();
+        grades[row] = fact[9] != null ? ((Double) fact[9]).floatValue() : Float.NaN;
+    }
+
+    private int insertRow(int row) {
+        ensureCapacity(size + 1);
+        int moved = size - row;
+        System.arraycopy(participationIds, row, participationIds, row + 1, moved);
+        System.arraycopy(sessionIds, row, sessionIds, row + 1, moved);
+        System.arraycopy(formationIds, row, formationIds, row + 1, moved);
+        System.arraycopy(categoryIds, row, categoryIds, row + 1, moved);
+        System.arraycopy(formateurIds, row, formateurIds, row + 1, moved);
+        System.arraycopy(startEpochDays, row, startEpochDays, row + 1, moved);
+        System.arraycopy(amountCents, row, amountCents, row + 1, moved);
+        System.arraycopy(statusOrdinals, row, statusOrdinals, row + 1, moved);
+        System.arraycopy(grades, row, grades, row + 1, moved);
+        size++;
+        return row;
+    }
+
+    private long lastParticipationId() {
+        lock.readLock().lock();
+        try {
+            return size > 0 ? participationIds[size - 1] : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int rowOf(long participationId) {
+        int row = Arrays.binarySearch(participationIds, 0, size, participationId);
+        return row >= 0 ? row : -1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= participationIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, participationIds.length * 2);
+        participationIds = Arrays.copyOf(participationIds, newCapacity);
+        sessionIds = Arrays.copyOf(sessionIds, newCapacity);
+        formationIds = Arrays.copyOf(formationIds, newCapacity);
+        categoryIds = Arrays.copyOf(categoryIds, newCapacity);
+        formateurIds = Arrays.copyOf(formateurIds, newCapacity);
+        startEpochDays = Arrays.copyOf(startEpochDays, newCapacity);
+        amountCents = Arrays.copyOf(amountCents, newCapacity);
+        statusOrdinals = Arrays.copyOf(statusOrdinals, newCapacity);
+        grades = Arrays.copyOf(grades, newCapacity);
+    }
+}
@@ -4,6 +4,9 @@ import lombok.RequiredArgsConstructor;
 import mmi.osaas.txlforma.dto.SessionDTO;
 import mmi.osaas.txlforma.dto.SessionResponseDTO;
 import mmi.osaas.txlforma.enums.Role;
+import mmi.osaas.txlforma.enums.StatisticsTopic;
+import mmi.osaas.txlforma.event.StatisticsChangedEvent;
+import mmi.osaas.txlforma.event.SuccessAttestationsRequestedEvent;
 import mmi.osaas.txlforma.model.Formation;
 import mmi.osaas.txlforma.model.Participation;
 import mmi.osaas.txlforma.model.Session;
@@ -14,7 +17,7 @@ import mmi.osaas.txlforma.repository.PanierSessionRepository;
 import mmi.osaas.txlforma.repository.ParticipationRepository;
 import mmi.osaas.txlforma.repository.SessionRepository;
 import mmi.osaas.txlforma.repository.UserRepository;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,8 +39,7 @@ public class SessionService {
     private final UserRepository userRepository;
     private final ParticipationRepository participationRepository;
     private final PanierSessionRepository panierSessionRepository;
-    @Lazy
-    private final AttestationService attestationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Session> getAllSessions(Long formationId, Long formateurId, LocalDate startDate, Boolean includePast) {
         List<Session> sessions;
@@ -92,8 +94,11 @@ public class SessionService {
                 .price(dto.getPrice())
                 .createdBy(createdBy)
                 .createdAt(ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime())
+                .updatedAt(ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime())
                 .build();
-        return sessionRepository.save(session);
+        Session createdSession = sessionRepository.save(session);
+        eventPublisher.publishEvent(new StatisticsChangedEvent(StatisticsTopic.SESSION));
+        return createdSession;
     }
 
     @Transactional
@@ -119,12 +124,11 @@ public class SessionService {
         existing.setLocation(dto.getLocation());
         existing.setCapacity(dto.getCapacity());
         existing.setPrice(dto.getPrice());
+        existing.setUpdatedAt(ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime());
         Session updatedSession = sessionRepository.save(existing);
+        eventPublisher.publishEvent(new StatisticsChangedEvent(StatisticsTopic.SESSION));
         if (endDateReculed) {
-            try {
-                attestationService.generateSuccessAttestations();
-            } catch (Exception ignored) {
-            }
+            eventPublisher.publishEvent(new SuccessAttestationsRequestedEvent("session-end-date-changed"));
         }
         return updatedSession;
     }
@@ -139,6 +143,7 @@ public class SessionService {
         }
         panierSessionRepository.deleteAll(panierSessionRepository.findBySessionId(id));
         sessionRepository.deleteById(id);
+        eventPublisher.publishEvent(new StatisticsChangedEvent(StatisticsTopic.SESSION));
     }
 
     public List<Session> getSessionsByFormateur(Long formateurId) {
@@ -0,0 +1,132 @@
+package mmi.osaas.txlforma.service;
+
+import mmi.osaas.txlforma.enums.StatisticsTopic;
+import mmi.osaas.txlforma.event.StatisticsChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class StatisticsCache {
+
+    @Value("${app.statistics.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${app.statistics.cache.max-entries:500}")
+    private int maxEntries;
+
+    private final Map<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+            if (size() > maxEntries) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Map<StatisticsTopic, Long> generations = new EnumMap<>(StatisticsTopic.class);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Set<StatisticsTopic> topics, Supplier<T> loader) {
+        long generation;
+        synchronized (this) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null && entry.expiresAt > System.nanoTime()) {
+                hits.incrementAndGet();
+                return (T) entry.value;
+            }
+            generation = generationOf(topics);
+        }
+
+        misses.incrementAndGet();
+        T value = loader.get();
+
+        synchronized (this) {
+            if (generationOf(topics) == generation && !isDegraded(value)) {
+                entries.put(key, new CacheEntry(value, topics, System.nanoTime() + ttlSeconds * 1_000_000_000L));
+            }
+        }
+        return value;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStatisticsChanged(StatisticsChangedEvent event) {
+        generations.merge(event.getTopic(), 1L, Long::sum);
+        Iterator<CacheEntry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().topics.contains(event.getTopic())) {
+                iterator.remove();
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        for (StatisticsTopic topic : StatisticsTopic.values()) {
+            generations.merge(topic, 1L, Long::sum);
+        }
+        invalidations.addAndGet(entries.size());
+        entries.clear();
+    }
+
+    public synchronized Map<String, Object> getStatistics() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", requests > 0 ? Math.round((double) hitCount / requests * 10000.0) / 100.0 : 0.0);
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    private static boolean isDegraded(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return map.get("unavailableMetrics") instanceof Collection<?> unavailable && !unavailable.isEmpty();
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.stream().anyMatch(StatisticsCache::isDegraded);
+        }
+        return false;
+    }
+
+    private long generationOf(Set<StatisticsTopic> topics) {
+        long generation = 0;
+        for (StatisticsTopic topic : topics) {
+            generation += generations.getOrDefault(topic, 0L);
+        }
+        return generation;
+    }
+
+    private static class CacheEntry {
+        private final Object value;
+        private final Set<StatisticsTopic> topics;
+        private final long expiresAt;
+
+        private CacheEntry(Object value, Set<StatisticsTopic> topics, long expiresAt) {
+            this.value = value;
+            this.topics = topics;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
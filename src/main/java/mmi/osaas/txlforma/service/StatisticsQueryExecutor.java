@@ -0,0 +1,73 @@
+package mmi.osaas.txlforma.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StatisticsQueryExecutor {
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.statistics.parallel-queries:false}")
+    private boolean parallelQueries;
+
+    @Value("${app.statistics.metric-timeout-ms:2000}")
+    private long metricTimeoutMs;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public Map<String, Object> run(Map<String, Supplier<Object>> metrics) {
+        Map<String, Object> results = new HashMap<>();
+        if (!parallelQueries) {
+            metrics.forEach((name, query) -> results.put(name, query.get()));
+            return results;
+        }
+
+        // Le délai de la transaction est appliqué à chaque requête JDBC : une métrique abandonnée libère sa connexion
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(metricTimeoutMs + 999)));
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(metricTimeoutMs);
+        Map<String, Future<Object>> futures = new LinkedHashMap<>();
+        metrics.forEach((name, query) -> futures.put(name, executor.submit(() -> transaction.execute(status -> query.get()))));
+
+        futures.forEach((name, future) -> {
+            try {
+                results.put(name, future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException timeoutException) {
+                future.cancel(true);
+                log.warn("[StatisticsQueryExecutor] Metric {} timed out after {} ms", name, metricTimeoutMs);
+            } catch (ExecutionException executionException) {
+                log.warn("[StatisticsQueryExecutor] Metric {} failed", name, executionException.getCause());
+            } catch (InterruptedException interruptedException) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+            }
+        });
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
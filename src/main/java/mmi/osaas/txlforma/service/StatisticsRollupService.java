@@ -0,0 +1,190 @@
+package mmi.osaas.txlforma.service;
+
+import lombok.RequiredArgsConstructor;
+import mmi.osaas.txlforma.enums.AttestationType;
+import mmi.osaas.txlforma.enums.PaiementStatus;
+import mmi.osaas.txlforma.model.Attestation;
+import mmi.osaas.txlforma.model.Note;
+import mmi.osaas.txlforma.model.Paiement;
+import mmi.osaas.txlforma.model.Participation;
+import mmi.osaas.txlforma.repository.ParticipationRepository;
+import mmi.osaas.txlforma.repository.StatisticsRollupRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class StatisticsRollupService {
+
+    private static final int PARTICIPANTS = 0;
+    private static final int PRESENCE_ATTESTATIONS = 1;
+    private static final int SUCCESS_ATTESTATIONS = 2;
+    private static final int NOTES = 3;
+    private static final int NOTE_SUM = 4;
+    private static final int REVENUE = 5;
+    private static final int METRICS = 6;
+
+    private final StatisticsRollupRepository statisticsRollupRepository;
+    private final ParticipationRepository participationRepository;
+
+    @Transactional
+    public void recordParticipation(Participation participation) {
+        statisticsRollupRepository.increment(participation.getSession().getId(),
+                participation.getCreatedAt().toLocalDate(), 1, 0, 0, 0, 0, revenueOf(participation));
+    }
+
+    @Transactional
+    public void recordAttestation(Attestation attestation) {
+        boolean success = attestation.getType() == AttestationType.SUCCES;
+        statisticsRollupRepository.increment(attestation.getParticipation().getSession().getId(),
+                attestation.getGeneratedAt().toLocalDate(), 0, success ? 0 : 1, success ? 1 : 0, 0, 0, 0);
+    }
+
+    @Transactional
+    public void recordNote(Note note) {
+        statisticsRollupRepository.increment(note.getParticipation().getSession().getId(),
+                note.getCreatedAt().toLocalDate(), 0, 0, 0, 1, note.getNote(), 0);
+    }
+
+    @Transactional
+    public void recordNoteChange(Note note, double previousValue) {
+        statisticsRollupRepository.increment(note.getParticipation().getSession().getId(),
+                note.getModifiedAt().toLocalDate(), 0, 0, 0, 0, note.getNote() - previousValue, 0);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void forgetParticipation(Participation participation) {
+        statisticsRollupRepository.increment(participation.getSession().getId(),
+                participation.getCreatedAt().toLocalDate(), -1, 0, 0, 0, 0, -revenueOf(participation));
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void forgetAttestation(Attestation attestation) {
+        boolean success = attestation.getType() == AttestationType.SUCCES;
+        statisticsRollupRepository.increment(attestation.getParticipation().getSession().getId(),
+                attestation.getGeneratedAt().toLocalDate(), 0, success ? 0 : -1, success ? -1 : 0, 0, 0, 0);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void forgetNote(Note note) {
+        statisticsRollupRepository.increment(note.getParticipation().getSession().getId(),
+                note.getCreatedAt().toLocalDate(), 0, 0, 0, -1, -note.getNote(), 0);
+    }
+
+    /** Annulation ou remboursement : le chiffre d'affaires suit le passage vers ou depuis SUCCEEDED */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordPaiementStatusChange(Paiement paiement, PaiementStatus previousStatus) {
+        boolean wasPaid = previousStatus == PaiementStatus.SUCCEEDED;
+        boolean isPaid = paiement.getStatus() == PaiementStatus.SUCCEEDED;
+        if (wasPaid == isPaid) {
+            return;
+        }
+        for (Participation participation : participationRepository.findByPaiementId(paiement.getId())) {
+            double amount = amountPaidOf(participation);
+            statisticsRollupRepository.increment(participation.getSession().getId(),
+                    participation.getCreatedAt().toLocalDate(), 0, 0, 0, 0, 0, isPaid ? amount : -amount);
+        }
+    }
+
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public Map<String, Object> rebuild() {
+        // Verrouille toute la table (lignes et intervalles) : les increment() concurrents attendent la fin du rebuild
+        statisticsRollupRepository.lockAll();
+        statisticsRollupRepository.deleteAllInBatch();
+        // Fige le montant des participations antérieures à amount_paid, sinon un changement de prix fausserait les retraits
+        statisticsRollupRepository.backfillAmountPaid();
+
+        for (Object[] row : statisticsRollupRepository.countParticipationsGroupBySessionIdAndDate()) {
+            statisticsRollupRepository.increment((Long) row[0], (LocalDate) row[1], (Long) row[2], 0, 0, 0, 0, 0);
+        }
+        for (Object[] row : statisticsRollupRepository.sumRevenueByPaiementStatusGroupBySessionIdAndDate(PaiementStatus.SUCCEEDED)) {
+            statisticsRollupRepository.increment((Long) row[0], (LocalDate) row[1], 0, 0, 0, 0, 0,
+                    ((Number) row[2]).doubleValue());
+        }
+        for (Object[] row : statisticsRollupRepository.countAttestationsGroupBySessionIdAndDateAndType()) {
+            long count = (Long) row[3];
+            boolean success = row[2] == AttestationType.SUCCES;
+            statisticsRollupRepository.increment((Long) row[0], (LocalDate) row[1], 0,
+                    success ? 0 : count, success ? count : 0, 0, 0, 0);
+        }
+        for (Object[] row : statisticsRollupRepository.summarizeNotesGroupBySessionIdAndDate()) {
+            statisticsRollupRepository.increment((Long) row[0], (LocalDate) row[1], 0, 0, 0,
+                    (Long) row[2], ((Number) row[3]).doubleValue(), 0);
+        }
+
+        return check();
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> check() {
+        Map<Long, double[]> expected = new HashMap<>();
+        for (Object[] row : statisticsRollupRepository.countParticipationsGroupBySessionIdAndDate()) {
+            totalsFor(expected, (Long) row[0])[PARTICIPANTS] += (Long) row[2];
+        }
+        for (Object[] row : statisticsRollupRepository.countAttestationsGroupBySessionIdAndDateAndType()) {
+            int index = row[2] == AttestationType.SUCCES ? SUCCESS_ATTESTATIONS : PRESENCE_ATTESTATIONS;
+            totalsFor(expected, (Long) row[0])[index] += (Long) row[3];
+        }
+        for (Object[] row : statisticsRollupRepository.summarizeNotesGroupBySessionIdAndDate()) {
+            double[] totals = totalsFor(expected, (Long) row[0]);
+            totals[NOTES] += (Long) row[2];
+            totals[NOTE_SUM] += ((Number) row[3]).doubleValue();
+        }
+        for (Object[] row : statisticsRollupRepository.sumRevenueByPaiementStatusGroupBySessionIdAndDate(PaiementStatus.SUCCEEDED)) {
+            totalsFor(expected, (Long) row[0])[REVENUE] += ((Number) row[2]).doubleValue();
+        }
+
+        Map<Long, double[]> actual = new HashMap<>();
+        for (Object[] row : statisticsRollupRepository.summarizeGroupBySessionId()) {
+            double[] totals = totalsFor(actual, (Long) row[0]);
+            for (int index = 0; index < totals.length; index++) {
+                totals[index] = ((Number) row[index + 1]).doubleValue();
+            }
+        }
+
+        Set<Long> sessionIds = new HashSet<>(expected.keySet());
+        sessionIds.addAll(actual.keySet());
+        List<Long> mismatchedSessionIds = new ArrayList<>();
+        for (Long sessionId : sessionIds) {
+            double[] expectedTotals = expected.getOrDefault(sessionId, new double[METRICS]);
+            double[] actualTotals = actual.getOrDefault(sessionId, new double[METRICS]);
+            for (int index = 0; index < expectedTotals.length; index++) {
+                if (Math.abs(expectedTotals[index] - actualTotals[index]) > 0.001) {
+                    mismatchedSessionIds.add(sessionId);
+                    break;
+                }
+            }
+        }
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("checkedAt", ZonedDateTime.now(ZoneId.of("Europe/Paris")).toLocalDateTime());
+        report.put("sessionsChecked", sessionIds.size());
+        report.put("mismatchedSessionIds", mismatchedSessionIds);
+        report.put("consistent", mismatchedSessionIds.isEmpty());
+        return report;
+    }
+
+    private double revenueOf(Participation participation) {
+        return participation.getPaiement().getStatus() == PaiementStatus.SUCCEEDED ? amountPaidOf(participation) : 0;
+    }
+
+    private double amountPaidOf(Participation participation) {
+        return participation.getAmountPaid() != null ? participation.getAmountPaid() : participation.getSession().getPrice();
+    }
+
+    private double[] totalsFor(Map<Long, double[]> totalsBySession, Long sessionId) {
+        return totalsBySession.computeIfAbsent(sessionId, id -> new double[METRICS]);
+    }
+}
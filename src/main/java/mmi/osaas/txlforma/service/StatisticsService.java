@@ -3,6 +3,10 @@ package mmi.osaas.txlforma.service;
 import lombok.RequiredArgsConstructor;
 import mmi.osaas.txlforma.enums.AttestationType;
 import mmi.osaas.txlforma.enums.PaiementStatus;
+import mmi.osaas.txlforma.enums.Role;
+import mmi.osaas.txlforma.enums.StatisticsDimension;
+import mmi.osaas.txlforma.enums.StatisticsGranularity;
+import mmi.osaas.txlforma.enums.StatisticsMetric;
 import mmi.osaas.txlforma.model.Attestation;
 import mmi.osaas.txlforma.model.Emargement;
 import mmi.osaas.txlforma.model.Note;
@@ -12,27 +16,47 @@ import mmi.osaas.txlforma.model.Session;
 import mmi.osaas.txlforma.model.User;
 import mmi.osaas.txlforma.repository.AttestationRepository;
 import mmi.osaas.txlforma.repository.EmargementRepository;
+import mmi.osaas.txlforma.repository.FormationRepository;
 import mmi.osaas.txlforma.repository.NoteRepository;
 import mmi.osaas.txlforma.repository.PaiementRepository;
+import mmi.osaas.txlforma.repository.PanierSessionRepository;
 import mmi.osaas.txlforma.repository.ParticipationRepository;
 import mmi.osaas.txlforma.repository.SessionRepository;
+import mmi.osaas.txlforma.repository.StatisticsRollupRepository;
 import mmi.osaas.txlforma.repository.UserRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class StatisticsService {
 
+    private static final List<String> FUNNEL_STAGES = List.of("addedToCart", "paid", "present", "graded", "success");
+    private static final int FUNNEL_BATCH_SIZE = 1000;
+    private static final int MAX_BUCKETS = 400;
+
     private final ParticipationRepository participationRepository;
     private final PaiementRepository paiementRepository;
     private final SessionRepository sessionRepository;
@@ -40,57 +64,40 @@ public class StatisticsService {
     private final NoteRepository noteRepository;
     private final UserRepository userRepository;
     private final EmargementRepository emargementRepository;
+    private final StatisticsRollupRepository statisticsRollupRepository;
+    private final StatisticsQueryExecutor statisticsQueryExecutor;
+    private final PanierSessionRepository panierSessionRepository;
+    private final FormationRepository formationRepository;
 
     public Map<String, Object> getGlobalStatistics(LocalDate startDate, LocalDate endDate) {
+        validateOptionalPeriod(startDate, endDate);
         Map<String, Object> stats = new HashMap<>();
 
-        List<Participation> participations = participationRepository.findAll();
-        if (startDate != null && endDate != null) {
-            participations = participations.stream()
-                    .filter(participation -> {
-                        LocalDate sessionDate = participation.getSession().getStartDate();
-                        return !sessionDate.isBefore(startDate) && !sessionDate.isAfter(endDate);
-                    })
-                    .collect(Collectors.toList());
-        }
-
-        long totalParticipants = participations.size();
-        long totalSessions = participations.stream()
-                .map(participation -> participation.getSession().getId())
-                .distinct()
-                .count();
-
-        List<Attestation> successAttestations = attestationRepository.findAll().stream()
-                .filter(attestation -> attestation.getType() == AttestationType.SUCCES)
-                .filter(attestation -> {
-                    if (startDate == null || endDate == null) return true;
-                    LocalDate sessionDate = attestation.getParticipation().getSession().getStartDate();
-                    return !sessionDate.isBefore(startDate) && !sessionDate.isAfter(endDate);
-                })
-                .collect(Collectors.toList());
-
-        long totalSuccess = successAttestations.size();
-        double successRate = totalParticipants > 0 ? (double) totalSuccess / totalParticipants * 100 : 0;
-
-        List<Paiement> successfulPayments = paiementRepository.findAll().stream()
-                .filter(paiement -> paiement.getStatus() == PaiementStatus.SUCCEEDED)
-                .filter(paiement -> {
-                    if (startDate == null || endDate == null) return true;
-                    LocalDateTime paymentDate = paiement.getCreatedAt();
-                    LocalDate paymentLocalDate = paymentDate.toLocalDate();
-                    return !paymentLocalDate.isBefore(startDate) && !paymentLocalDate.isAfter(endDate);
-                })
-                .collect(Collectors.toList());
-
-        double totalRevenue = successfulPayments.stream()
-                .mapToDouble(Paiement::getAmount)
-                .sum();
-
-        stats.put("totalParticipants", totalParticipants);
-        stats.put("totalSessions", totalSessions);
-        stats.put("totalSuccess", totalSuccess);
-        stats.put("successRate", Math.round(successRate * 100.0) / 100.0);
-        stats.put("totalRevenue", Math.round(totalRevenue * 100.0) / 100.0);
+        boolean filtered = startDate != null;
+        LocalDate from = startDate;
+        LocalDate to = endDate;
+
+        Map<String, Supplier<Object>> queries = new LinkedHashMap<>();
+        queries.put("participations", () -> statisticsRollupRepository.summarizeBySessionStartDateBetween(from, to).get(0));
+        queries.put("revenue", () -> paiementRepository.sumAmountByStatusAndCreatedAtBetween(
+                PaiementStatus.SUCCEEDED,
+                filtered ? startDate.atStartOfDay() : null,
+                filtered ? endDate.plusDays(1).atStartOfDay() : null));
+        Map<String, Object> metrics = statisticsQueryExecutor.run(queries);
+
+        if (metrics.get("participations") instanceof Object[] summary) {
+            long totalParticipants = ((Number) summary[0]).longValue();
+            long totalSuccess = ((Number) summary[2]).longValue();
+            double successRate = totalParticipants > 0 ? (double) totalSuccess / totalParticipants * 100 : 0;
+            stats.put("totalParticipants", totalParticipants);
+            stats.put("totalSessions", ((Number) summary[1]).longValue());
+            stats.put("totalSuccess", totalSuccess);
+            stats.put("successRate", Math.round(successRate * 100.0) / 100.0);
+        }
+        if (metrics.get("revenue") instanceof Double totalRevenue) {
+            stats.put("totalRevenue", Math.round(totalRevenue * 100.0) / 100.0);
+        }
+        putUnavailableMetrics(stats, queries, metrics);
         stats.put("period", Map.of(
                 "startDate", startDate != null ? startDate.toString() : "all",
                 "endDate", endDate != null ? endDate.toString() : "all"
@@ -99,79 +106,370 @@ public class StatisticsService {
         return stats;
     }
 
-    public Map<String, Object> getFormateurStatistics(Long formateurId) {
-        User formateur = userRepository.findById(formateurId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Formateur introuvable"));
+    public Map<String, Object> getTimeSeries(LocalDate startDate, LocalDate endDate, StatisticsGranularity granularity) {
+        validatePeriod(startDate, endDate, granularity);
 
-        if (formateur.getRole() != mmi.osaas.txlforma.enums.Role.FORMATEUR) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "L'utilisateur n'est pas un formateur");
+        Map<LocalDate, double[]> buckets = new LinkedHashMap<>();
+        for (LocalDate bucket = toBucket(startDate, granularity); !bucket.isAfter(endDate); bucket = nextBucket(bucket, granularity)) {
+            buckets.put(bucket, new double[4]);
         }
 
-        List<Session> sessions = sessionRepository.findByFormateurId(formateurId);
-        long totalSessions = sessions.size();
+        for (Object[] row : statisticsRollupRepository.summarizeGroupBySessionStartDate(startDate, endDate)) {
+            double[] values = buckets.get(toBucket((LocalDate) row[0], granularity));
+            values[0] += ((Number) row[1]).doubleValue();
+            values[1] += ((Number) row[2]).doubleValue();
+        }
+        for (Object[] row : sessionRepository.sumCapacityGroupByStartDate(startDate, endDate)) {
+            buckets.get(toBucket((LocalDate) row[0], granularity))[2] += ((Number) row[1]).doubleValue();
+        }
+        for (Object[] row : paiementRepository.sumAmountByStatusGroupByDay(
+                PaiementStatus.SUCCEEDED, startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay())) {
+            buckets.get(toBucket((LocalDate) row[0], granularity))[3] += ((Number) row[1]).doubleValue();
+        }
 
-        List<Participation> participations = participationRepository.findAll().stream()
-                .filter(participation -> participation.getSession().getFormateur().getId().equals(formateurId))
-                .collect(Collectors.toList());
+        List<Map<String, Object>> points = new ArrayList<>();
+        buckets.forEach((bucket, values) -> {
+            double occupancyRate = values[2] > 0 ? values[0] / values[2] * 100 : 0;
+            Map<String, Object> point = new HashMap<>();
+            point.put("bucket", bucket.toString());
+            point.put("participants", (long) values[0]);
+            point.put("successCount", (long) values[1]);
+            point.put("capacity", (long) values[2]);
+            point.put("occupancyRate", Math.round(occupancyRate * 100.0) / 100.0);
+            point.put("revenue", Math.round(values[3] * 100.0) / 100.0);
+            points.add(point);
+        });
 
-        long totalParticipants = participations.size();
+        Map<String, Object> result = new HashMap<>();
+        result.put("granularity", granularity.toString());
+        result.put("period", Map.of(
+                "startDate", startDate.toString(),
+                "endDate", endDate.toString()
+        ));
+        result.put("points", points);
+        return result;
+    }
 
-        long totalHours = sessions.stream()
-                .mapToLong(session -> {
-                    long days = ChronoUnit.DAYS.between(session.getStartDate(), session.getEndDate()) + 1;
-                    long hoursPerDay = ChronoUnit.HOURS.between(session.getStartTime(), session.getEndTime());
-                    return days * hoursPerDay;
-                })
-                .sum();
+    private void validateOptionalPeriod(LocalDate startDate, LocalDate endDate) {
+        if ((startDate == null) != (endDate == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Les dates de début et de fin doivent être fournies ensemble");
+        }
+        if (startDate != null && startDate.isAfter(endDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Période invalide");
+        }
+    }
 
-        List<Note> notes = noteRepository.findAll().stream()
-                .filter(note -> note.getGivenBy().getId().equals(formateurId))
-                .collect(Collectors.toList());
+    private void validatePeriod(LocalDate startDate, LocalDate endDate, StatisticsGranularity granularity) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Période invalide");
+        }
+        LocalDate firstBucket = toBucket(startDate, granularity);
+        long buckets = switch (granularity) {
+            case DAY -> ChronoUnit.DAYS.between(firstBucket, endDate);
+            case WEEK -> ChronoUnit.WEEKS.between(firstBucket, endDate);
+            case MONTH -> ChronoUnit.MONTHS.between(firstBucket, endDate);
+        } + 1;
+        if (buckets > MAX_BUCKETS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Période trop longue pour la granularité " + granularity + " (" + buckets + " intervalles, maximum " +
+                            MAX_BUCKETS + "), choisissez une granularité plus grossière");
+        }
+    }
 
-        long totalNotes = notes.size();
-        double averageNote = notes.stream()
-                .mapToDouble(Note::getNote)
-                .average()
-                .orElse(0.0);
+    private LocalDate toBucket(LocalDate date, StatisticsGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
 
-        List<Attestation> successAttestations = attestationRepository.findAll().stream()
-                .filter(attestation -> attestation.getType() == AttestationType.SUCCES)
-                .filter(attestation -> attestation.getParticipation().getSession().getFormateur().getId().equals(formateurId))
-                .collect(Collectors.toList());
+    private LocalDate nextBucket(LocalDate bucket, StatisticsGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> bucket.plusDays(1);
+            case WEEK -> bucket.plusWeeks(1);
+            case MONTH -> bucket.plusMonths(1);
+        };
+    }
 
-        long totalSuccess = successAttestations.size();
-        double successRate = totalParticipants > 0 ? (double) totalSuccess / totalParticipants * 100 : 0;
+    public Map<String, Object> getFunnel(LocalDate startDate, LocalDate endDate, StatisticsGranularity granularity) {
+        validatePeriod(startDate, endDate, granularity);
+        LocalDateTime from = startDate.atStartOfDay();
+        LocalDateTime to = endDate.plusDays(1).atStartOfDay();
+
+        Map<Long, long[]> byFormation = new HashMap<>();
+        Map<LocalDate, long[]> byPeriod = new TreeMap<>();
+        long[] totals = new long[FUNNEL_STAGES.size()];
+
+        long afterId = 0;
+        List<Object[]> rows;
+        do {
+            rows = panierSessionRepository.findFunnelRowsAfterId(afterId, from, to, PageRequest.of(0, FUNNEL_BATCH_SIZE));
+            for (Object[] row : rows) {
+                long[] formationCounts = byFormation.computeIfAbsent((Long) row[1], id -> new long[FUNNEL_STAGES.size()]);
+                long[] periodCounts = byPeriod.computeIfAbsent(toBucket(((LocalDateTime) row[2]).toLocalDate(), granularity),
+                        bucket -> new long[FUNNEL_STAGES.size()]);
+                formationCounts[0]++;
+                periodCounts[0]++;
+                totals[0]++;
+                afterId = (Long) row[0];
+            }
+        } while (rows.size() == FUNNEL_BATCH_SIZE);
+
+        afterId = 0;
+        do {
+            rows = participationRepository.findFunnelRowsAfterId(afterId, AttestationType.SUCCES, from, to,
+                    PageRequest.of(0, FUNNEL_BATCH_SIZE));
+            for (Object[] row : rows) {
+                long[] formationCounts = byFormation.computeIfAbsent((Long) row[1], id -> new long[FUNNEL_STAGES.size()]);
+                long[] periodCounts = byPeriod.computeIfAbsent(toBucket(((LocalDateTime) row[2]).toLocalDate(), granularity),
+                        bucket -> new long[FUNNEL_STAGES.size()]);
+                boolean[] reached = {true, true, row[3] != null, row[4] != null, row[5] != null};
+                for (int stage = 0; stage < reached.length; stage++) {
+                    if (reached[stage]) {
+                        formationCounts[stage]++;
+                        periodCounts[stage]++;
+                        totals[stage]++;
+                    }
+                }
+                afterId = (Long) row[0];
+            }
+        } while (rows.size() == FUNNEL_BATCH_SIZE);
+
+        Map<Long, String> formationTitles = new HashMap<>();
+        formationRepository.findAllById(byFormation.keySet())
+                .forEach(formation -> formationTitles.put(formation.getId(), formation.getTitle()));
+
+        List<Map<String, Object>> formations = new ArrayList<>();
+        byFormation.forEach((formationId, counts) -> {
+            Map<String, Object> entry = toFunnelEntry(counts);
+            entry.put("formationId", formationId);
+            entry.put("formationTitle", formationTitles.get(formationId));
+            formations.add(entry);
+        });
+
+        List<Map<String, Object>> periods = new ArrayList<>();
+        byPeriod.forEach((bucket, counts) -> {
+            Map<String, Object> entry = toFunnelEntry(counts);
+            entry.put("bucket", bucket.toString());
+            periods.add(entry);
+        });
 
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("formateurId", formateurId);
-        stats.put("formateurName", formateur.getFirstname() + " " + formateur.getLastname());
-        stats.put("totalSessions", totalSessions);
-        stats.put("totalParticipants", totalParticipants);
-        stats.put("totalHours", totalHours);
-        stats.put("totalNotes", totalNotes);
-        stats.put("averageNote", Math.round(averageNote * 100.0) / 100.0);
-        stats.put("totalSuccess", totalSuccess);
-        stats.put("successRate", Math.round(successRate * 100.0) / 100.0);
+        Map<String, Object> result = new HashMap<>();
+        result.put("stages", FUNNEL_STAGES);
+        result.put("granularity", granularity.toString());
+        result.put("period", Map.of(
+                "startDate", startDate.toString(),
+                "endDate", endDate.toString()
+        ));
+        result.put("totals", toFunnelEntry(totals));
+        result.put("byFormation", formations);
+        result.put("byPeriod", periods);
+        return result;
+    }
 
-        return stats;
+    private Map<String, Object> toFunnelEntry(long[] counts) {
+        Map<String, Long> stageCounts = new LinkedHashMap<>();
+        Map<String, Double> conversionRates = new LinkedHashMap<>();
+        for (int stage = 0; stage < counts.length; stage++) {
+            stageCounts.put(FUNNEL_STAGES.get(stage), counts[stage]);
+            if (stage > 0) {
+                double rate = counts[stage - 1] > 0 ? (double) counts[stage] / counts[stage - 1] * 100 : 0;
+                conversionRates.put(FUNNEL_STAGES.get(stage), Math.round(rate * 100.0) / 100.0);
+            }
+        }
+        double overallRate = counts[0] > 0 ? (double) counts[counts.length - 1] / counts[0] * 100 : 0;
+
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("counts", stageCounts);
+        entry.put("conversionRates", conversionRates);
+        entry.put("overallConversionRate", Math.round(overallRate * 100.0) / 100.0);
+        return entry;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getTop(StatisticsDimension dimension, StatisticsMetric metric, int limit,
+                                      LocalDate startDate, LocalDate endDate) {
+        if (limit < 1 || limit > 100) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La limite doit être entre 1 et 100");
+        }
+        validateOptionalPeriod(startDate, endDate);
+        LocalDate from = startDate;
+        LocalDate to = endDate;
+
+        Comparator<RankingEntry> byScore = Comparator.comparingDouble(entry -> entry.score);
+        PriorityQueue<RankingEntry> heap = new PriorityQueue<>(limit + 1, byScore);
+        try (Stream<Object[]> rows = switch (dimension) {
+            case FORMATION -> statisticsRollupRepository.streamRankingRowsByFormation(from, to);
+            case SESSION -> statisticsRollupRepository.streamRankingRowsBySession(from, to);
+            case FORMATEUR -> statisticsRollupRepository.streamRankingRowsByFormateur(from, to);
+        }) {
+            rows.forEach(row -> {
+                RankingEntry entry = new RankingEntry(row, metric);
+                if (heap.size() < limit) {
+                    heap.add(entry);
+                } else if (entry.score > heap.peek().score) {
+                    heap.poll();
+                    heap.add(entry);
+                }
+            });
+        }
+
+        List<RankingEntry> ranked = new ArrayList<>(heap);
+        ranked.sort(byScore.reversed());
+        List<Long> ids = ranked.stream().map(entry -> entry.id).toList();
+        Map<Long, String> labels = new HashMap<>();
+        switch (dimension) {
+            case FORMATION -> formationRepository.findAllById(ids)
+                    .forEach(formation -> labels.put(formation.getId(), formation.getTitle()));
+            case SESSION -> sessionRepository.findAllById(ids)
+                    .forEach(session -> labels.put(session.getId(), session.getFormation().getTitle() + " - " + session.getStartDate()));
+            case FORMATEUR -> userRepository.findAllById(ids)
+                    .forEach(user -> labels.put(user.getId(), user.getFirstname() + " " + user.getLastname()));
+        }
+
+        List<Map<String, Object>> top = new ArrayList<>();
+        for (int rank = 0; rank < ranked.size(); rank++) {
+            RankingEntry entry = ranked.get(rank);
+            Map<String, Object> item = new HashMap<>();
+            item.put("rank", rank + 1);
+            item.put("id", entry.id);
+            item.put("label", labels.get(entry.id));
+            item.put("score", Math.round(entry.score * 100.0) / 100.0);
+            item.put("participants", entry.participants);
+            item.put("success", entry.success);
+            item.put("revenue", Math.round(entry.revenue * 100.0) / 100.0);
+            item.put("capacity", entry.capacity);
+            top.add(item);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("dimension", dimension.toString());
+        result.put("metric", metric.toString());
+        result.put("period", Map.of(
+                "startDate", startDate != null ? startDate.toString() : "all",
+                "endDate", endDate != null ? endDate.toString() : "all"
+        ));
+        result.put("top", top);
+        return result;
+    }
+
+    private static class RankingEntry {
+        private final long id;
+        private final long participants;
+        private final long success;
+        private final double revenue;
+        private final long capacity;
+        private final double score;
+
+        private RankingEntry(Object[] row, StatisticsMetric metric) {
+            id = (Long) row[0];
+            participants = ((Number) row[1]).longValue();
+            success = ((Number) row[2]).longValue();
+            revenue = row[3] != null ? ((Number) row[3]).doubleValue() : 0.0;
+            capacity = row[4] != null ? ((Number) row[4]).longValue() : 0L;
+            score = switch (metric) {
+                case REVENUE -> revenue;
+                case OCCUPANCY -> capacity > 0 ? (double) participants / capacity * 100 : 0;
+                case SUCCESS_RATE -> participants > 0 ? (double) success / participants * 100 : 0;
+            };
+        }
+    }
+
+    public Map<String, Object> getFormateurStatistics(Long formateurId) {
+        User formateur = userRepository.findById(formateurId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Formateur introuvable"));
+
+        if (formateur.getRole() != Role.FORMATEUR) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "L'utilisateur n'est pas un formateur");
+        }
+
+        return computeFormateursStatistics(List.of(formateur), formateurId).get(0);
     }
 
     public List<Map<String, Object>> getAllFormateursStatistics() {
-        List<User> formateurs = userRepository.findAll().stream()
-                .filter(user -> user.getRole() == mmi.osaas.txlforma.enums.Role.FORMATEUR)
-                .collect(Collectors.toList());
+        return computeFormateursStatistics(userRepository.findByRole(Role.FORMATEUR), null);
+    }
+
+    private List<Map<String, Object>> computeFormateursStatistics(List<User> formateurs, Long formateurId) {
+        Map<String, Supplier<Object>> queries = new LinkedHashMap<>();
+        queries.put("sessions", () -> sessionRepository.findSchedulesByFormateurId(formateurId));
+        queries.put("rollups", () -> statisticsRollupRepository.summarizeGroupByFormateurId(formateurId));
+        Map<String, Object> metrics = statisticsQueryExecutor.run(queries);
+
+        Map<Long, Long> sessionsByFormateur = new HashMap<>();
+        Map<Long, Long> hoursByFormateur = new HashMap<>();
+        for (Object[] row : rowsOf(metrics.get("sessions"))) {
+            Long id = (Long) row[0];
+            long days = ChronoUnit.DAYS.between((LocalDate) row[1], (LocalDate) row[2]) + 1;
+            long hoursPerDay = ChronoUnit.HOURS.between((LocalTime) row[3], (LocalTime) row[4]);
+            sessionsByFormateur.merge(id, 1L, Long::sum);
+            hoursByFormateur.merge(id, days * hoursPerDay, Long::sum);
+        }
+
+        Map<Long, Object[]> rollupsByFormateur = new HashMap<>();
+        for (Object[] row : rowsOf(metrics.get("rollups"))) {
+            rollupsByFormateur.put((Long) row[0], row);
+        }
 
         return formateurs.stream()
-                .map(formateur -> getFormateurStatistics(formateur.getId()))
+                .map(formateur -> {
+                    Long id = formateur.getId();
+                    Map<String, Object> stats = new HashMap<>();
+                    stats.put("formateurId", id);
+                    stats.put("formateurName", formateur.getFirstname() + " " + formateur.getLastname());
+
+                    if (metrics.containsKey("sessions")) {
+                        stats.put("totalSessions", sessionsByFormateur.getOrDefault(id, 0L));
+                        stats.put("totalHours", hoursByFormateur.getOrDefault(id, 0L));
+                    }
+                    if (metrics.containsKey("rollups")) {
+                        Object[] rollup = rollupsByFormateur.get(id);
+                        long totalParticipants = rollup != null ? ((Number) rollup[1]).longValue() : 0L;
+                        long totalSuccess = rollup != null ? ((Number) rollup[2]).longValue() : 0L;
+                        long totalNotes = rollup != null ? ((Number) rollup[3]).longValue() : 0L;
+                        double noteSum = rollup != null ? ((Number) rollup[4]).doubleValue() : 0.0;
+                        double successRate = totalParticipants > 0 ? (double) totalSuccess / totalParticipants * 100 : 0;
+                        double averageNote = totalNotes > 0 ? noteSum / totalNotes : 0.0;
+                        stats.put("totalParticipants", totalParticipants);
+                        stats.put("totalNotes", totalNotes);
+                        stats.put("averageNote", Math.round(averageNote * 100.0) / 100.0);
+                        stats.put("totalSuccess", totalSuccess);
+                        stats.put("successRate", Math.round(successRate * 100.0) / 100.0);
+                    }
+                    putUnavailableMetrics(stats, queries, metrics);
+                    return stats;
+                })
                 .collect(Collectors.toList());
     }
 
+    @SuppressWarnings("unchecked")
+    private List<Object[]> rowsOf(Object metric) {
+        return metric != null ? (List<Object[]>) metric : List.of();
+    }
+
+    private void putUnavailableMetrics(Map<String, Object> stats, Map<String, Supplier<Object>> queries, Map<String, Object> metrics) {
+        List<String> unavailableMetrics = queries.keySet().stream()
+                .filter(name -> !metrics.containsKey(name))
+                .toList();
+        if (!unavailableMetrics.isEmpty()) {
+            stats.put("unavailableMetrics", unavailableMetrics);
+        }
+    }
+
     public Map<String, Object> getSessionDetails(Long sessionId) {
         Session session = sessionRepository.findById(sessionId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Session introuvable"));
 
         List<Participation> participations = participationRepository.findBySessionId(sessionId);
 
+        Map<Long, Emargement> emargementsByParticipation = emargementRepository.findByParticipationSessionId(sessionId).stream()
+                .collect(Collectors.toMap(emargement -> emargement.getParticipation().getId(), Function.identity()));
+        Map<Long, Note> notesByParticipation = noteRepository.findByParticipationSessionId(sessionId).stream()
+                .collect(Collectors.toMap(note -> note.getParticipation().getId(), Function.identity()));
+        Map<Long, List<Attestation>> attestationsByParticipation = attestationRepository.findByParticipationSessionId(sessionId).stream()
+                .collect(Collectors.groupingBy(attestation -> attestation.getParticipation().getId()));
+
         List<Map<String, Object>> participantsDetails = participations.stream()
                 .map(participation -> {
                     Map<String, Object> details = new HashMap<>();
@@ -195,20 +493,20 @@ public class StatisticsService {
                         details.put("paymentMethod", "carte");
                     }
                     
-                    Emargement emargement = emargementRepository.findByParticipationId(participation.getId()).orElse(null);
+                    Emargement emargement = emargementsByParticipation.get(participation.getId());
                     details.put("hasSigned", emargement != null);
                     if (emargement != null) {
                         details.put("signedAt", emargement.getSignedAt());
                     }
 
-                    Note note = noteRepository.findByParticipationId(participation.getId()).orElse(null);
+                    Note note = notesByParticipation.get(participation.getId());
                     details.put("hasNote", note != null);
                     if (note != null) {
                         details.put("note", note.getNote());
                         details.put("noteLocked", note.getLocked());
                     }
 
-                    List<Attestation> attestations = attestationRepository.findByParticipationId(participation.getId());
+                    List<Attestation> attestations = attestationsByParticipation.getOrDefault(participation.getId(), List.of());
                     List<Map<String, Object>> attestationsList = attestations.stream()
                             .map(attestation -> {
                                 Map<String, Object> attMap = new HashMap<>();
@@ -0,0 +1,122 @@
+package mmi.osaas.txlforma.service;
+
+import lombok.RequiredArgsConstructor;
+import mmi.osaas.txlforma.event.ParticipationCreatedEvent;
+import mmi.osaas.txlforma.model.Formation;
+import mmi.osaas.txlforma.repository.FormationRepository;
+import mmi.osaas.txlforma.repository.ParticipationRepository;
+import mmi.osaas.txlforma.util.HyperLogLog;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class UniqueLearnerService {
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    private final ParticipationRepository participationRepository;
+    private final FormationRepository formationRepository;
+
+    private final Map<Long, Map<YearMonth, HyperLogLog>> sketches = new HashMap<>();
+    private boolean loaded;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onParticipationCreated(ParticipationCreatedEvent event) {
+        if (!loaded) {
+            load();
+        }
+        add(event.getFormationId(), event.getUserId(), event.getCreatedAt());
+    }
+
+    public Map<String, Object> countUniqueLearners(LocalDate startDate, LocalDate endDate,
+                                                   Long categoryId, Long formationId, boolean exact) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Période invalide");
+        }
+        YearMonth fromMonth = YearMonth.from(startDate);
+        YearMonth toMonth = YearMonth.from(endDate);
+
+        Set<Long> formationIds = null;
+        if (formationId != null) {
+            formationIds = Set.of(formationId);
+        } else if (categoryId != null) {
+            formationIds = formationRepository.findByCategoryId(categoryId).stream()
+                    .map(Formation::getId)
+                    .collect(Collectors.toSet());
+        }
+
+        long uniqueLearners;
+        if (exact) {
+            LocalDateTime from = fromMonth.atDay(1).atStartOfDay();
+            LocalDateTime to = toMonth.plusMonths(1).atDay(1).atStartOfDay();
+            if (formationIds == null) {
+                uniqueLearners = participationRepository.countDistinctUsersByCreatedAtBetween(from, to);
+            } else if (formationIds.isEmpty()) {
+                uniqueLearners = 0;
+            } else {
+                uniqueLearners = participationRepository.countDistinctUsersByFormationIdsAndCreatedAtBetween(formationIds, from, to);
+            }
+        } else {
+            uniqueLearners = estimate(formationIds, fromMonth, toMonth);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("uniqueLearners", uniqueLearners);
+        result.put("mode", exact ? "EXACT" : "APPROXIMATE");
+        result.put("fromMonth", fromMonth.toString());
+        result.put("toMonth", toMonth.toString());
+        result.put("categoryId", categoryId);
+        result.put("formationId", formationId);
+        return result;
+    }
+
+    private synchronized long estimate(Set<Long> formationIds, YearMonth fromMonth, YearMonth toMonth) {
+        if (!loaded) {
+            load();
+        }
+        HyperLogLog merged = new HyperLogLog();
+        sketches.forEach((formationId, months) -> {
+            if (formationIds != null && !formationIds.contains(formationId)) {
+                return;
+            }
+            months.forEach((month, sketch) -> {
+                if (!month.isBefore(fromMonth) && !month.isAfter(toMonth)) {
+                    merged.merge(sketch);
+                }
+            });
+        });
+        return merged.estimate();
+    }
+
+    private void load() {
+        long afterId = 0;
+        List<Object[]> rows;
+        do {
+            rows = participationRepository.findLearnerRowsAfterId(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (Object[] row : rows) {
+                add((Long) row[1], (Long) row[2], (LocalDateTime) row[3]);
+                afterId = (Long) row[0];
+            }
+        } while (rows.size() == LOAD_BATCH_SIZE);
+        loaded = true;
+    }
+
+    private void add(Long formationId, Long userId, LocalDateTime createdAt) {
+        sketches.computeIfAbsent(formationId, id -> new HashMap<>())
+                .computeIfAbsent(YearMonth.from(createdAt), month -> new HyperLogLog())
+                .add(userId);
+    }
+}
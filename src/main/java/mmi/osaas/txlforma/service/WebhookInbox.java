@@ -0,0 +1,182 @@
+package mmi.osaas.txlforma.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mmi.osaas.txlforma.enums.WebhookEventStatus;
+import mmi.osaas.txlforma.event.WebhookEventReceivedEvent;
+import mmi.osaas.txlforma.model.WebhookEvent;
+import mmi.osaas.txlforma.repository.WebhookEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class WebhookInbox {
+
+    private static final List<WebhookEventStatus> CLAIMABLE = List.of(WebhookEventStatus.PENDING, WebhookEventStatus.PROCESSING);
+
+    private final PaiementService paiementService;
+    private final WebhookEventRepository webhookEventRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.webhooks.workers:2}")
+    private int workers;
+
+    @Value("${app.webhooks.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.webhooks.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.webhooks.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    @Value("${app.webhooks.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${app.webhooks.dispatch-batch-size:200}")
+    private int dispatchBatchSize;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("webhook-worker-", 0).factory());
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWebhookEventReceived(WebhookEventReceivedEvent event) {
+        submit(event.getWebhookEventId());
+    }
+
+    public void dispatchDue() {
+        List<Long> dueIds = webhookEventRepository.findDueIds(CLAIMABLE, LocalDateTime.now(), PageRequest.of(0, dispatchBatchSize));
+        for (Long webhookEventId : dueIds) {
+            if (!submit(webhookEventId) && executor.getQueue().remainingCapacity() == 0) {
+                return;
+            }
+        }
+    }
+
+    public void replay(Long webhookEventId) {
+        WebhookEvent webhookEvent = webhookEventRepository.findById(webhookEventId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Événement introuvable"));
+        if (webhookEvent.getStatus() != WebhookEventStatus.DEAD) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Seuls les événements en échec définitif peuvent être rejoués");
+        }
+        webhookEvent.setStatus(WebhookEventStatus.PENDING);
+        webhookEvent.setAttempts(0);
+        webhookEvent.setNextAttemptAt(LocalDateTime.now());
+        webhookEventRepository.save(webhookEvent);
+        submit(webhookEventId);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Long> byStatus = new HashMap<>();
+        for (WebhookEventStatus status : WebhookEventStatus.values()) {
+            byStatus.put(status.toString(), 0L);
+        }
+        for (Object[] row : webhookEventRepository.countByStatus()) {
+            byStatus.put(row[0].toString(), (Long) row[1]);
+        }
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("byStatus", byStatus);
+        statistics.put("inFlight", inFlight.size());
+        statistics.put("queued", executor.getQueue().size());
+        statistics.put("dead", webhookEventRepository.findByStatusOrderByIdDesc(WebhookEventStatus.DEAD, PageRequest.of(0, 20)).stream()
+                .map(webhookEvent -> Map.of(
+                        "id", webhookEvent.getId(),
+                        "eventId", webhookEvent.getEventId(),
+                        "attempts", webhookEvent.getAttempts(),
+                        "lastError", webhookEvent.getLastError() != null ? webhookEvent.getLastError() : "",
+                        "receivedAt", webhookEvent.getReceivedAt()))
+                .toList());
+        return statistics;
+    }
+
+    private boolean submit(Long webhookEventId) {
+        if (!inFlight.add(webhookEventId)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(webhookEventId);
+                } finally {
+                    inFlight.remove(webhookEventId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            inFlight.remove(webhookEventId);
+            log.warn("[WebhookInbox] Queue full, webhook event {} left for the next dispatch", webhookEventId);
+            return false;
+        }
+    }
+
+    private void process(Long webhookEventId) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transaction.execute(status -> webhookEventRepository.claim(webhookEventId, CLAIMABLE,
+                WebhookEventStatus.PROCESSING, now, now.plusNanos(TimeUnit.MILLISECONDS.toNanos(leaseMs))));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+
+        WebhookEvent webhookEvent = webhookEventRepository.findById(webhookEventId).orElse(null);
+        if (webhookEvent == null) {
+            return;
+        }
+        try {
+            paiementService.processWebhookEvent(webhookEvent.getPayload(), webhookEvent.getSignature());
+            webhookEvent.setStatus(WebhookEventStatus.PROCESSED);
+            webhookEvent.setProcessedAt(LocalDateTime.now());
+            webhookEvent.setLastError(null);
+        } catch (Exception e) {
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            webhookEvent.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+            if (webhookEvent.getAttempts() >= maxAttempts) {
+                webhookEvent.setStatus(WebhookEventStatus.DEAD);
+                log.error("[WebhookInbox] Webhook event {} dead-lettered after {} attempts",
+                        webhookEvent.getEventId(), webhookEvent.getAttempts(), e);
+            } else {
+                long delay = retryDelayMs << (webhookEvent.getAttempts() - 1);
+                webhookEvent.setStatus(WebhookEventStatus.PENDING);
+                webhookEvent.setNextAttemptAt(LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(delay)));
+                log.warn("[WebhookInbox] Webhook event {} attempt {} failed, retrying in {} ms",
+                        webhookEvent.getEventId(), webhookEvent.getAttempts(), delay);
+            }
+        }
+        webhookEventRepository.save(webhookEvent);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
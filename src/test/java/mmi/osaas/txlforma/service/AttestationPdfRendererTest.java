@@ -0,0 +1,101 @@
+package mmi.osaas.txlforma.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import mmi.osaas.txlforma.enums.AttestationType;
+import mmi.osaas.txlforma.model.Formation;
+import mmi.osaas.txlforma.model.Participation;
+import mmi.osaas.txlforma.model.Session;
+import mmi.osaas.txlforma.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AttestationPdfRendererTest {
+
+    @TempDir
+    Path directory;
+
+    private final AttestationPdfRenderer renderer = new AttestationPdfRenderer("target/absent-logo.png", true);
+
+    @Test
+    void shortBodyFitsOnOnePage() throws IOException {
+        Path file = directory.resolve("short.pdf");
+        renderer.render(participation("Initiation Java", "Paris"), AttestationType.SUCCES, 15.5,
+                "http://localhost/verify?code=x", file);
+
+        String text = extractText(file);
+        assertThat(pageCount(file)).isEqualTo(1);
+        assertThat(text).contains("Initiation Java", "Lieu : Paris", "Note obtenue : 15.5/20", "Fait à");
+        assertThat(renderer.getStatistics()).containsEntry("shrunkBodies", 0L).containsEntry("continuedBodies", 0L);
+    }
+
+    @Test
+    void longTitleShrinksInsteadOfBeingDropped() throws IOException {
+        Path file = directory.resolve("shrunk.pdf");
+        renderer.render(participation("Formation avancée ".repeat(40) + "FINTITRE", "Lyon"), AttestationType.SUCCES, 12.0,
+                null, file);
+
+        String text = extractText(file);
+        assertThat(pageCount(file)).isEqualTo(1);
+        assertThat(text).contains("FINTITRE", "Lieu : Lyon", "Note obtenue : 12.0/20", "Fait à");
+        assertThat(renderer.getStatistics()).containsEntry("shrunkBodies", 1L).containsEntry("continuedBodies", 0L);
+    }
+
+    @Test
+    void oversizedBodyContinuesOnNextPage() throws IOException {
+        Path file = directory.resolve("continued.pdf");
+        renderer.render(participation("Formation ".repeat(300) + "FINTITRE", "Salle ".repeat(200) + "FINLIEU"),
+                AttestationType.PRESENCE, null, null, file);
+
+        String text = extractText(file);
+        assertThat(pageCount(file)).isGreaterThan(1);
+        assertThat(text).contains("FINTITRE", "FINLIEU", "Fait à");
+        assertThat(renderer.getStatistics()).containsEntry("continuedBodies", 1L);
+    }
+
+    @Test
+    void unbrokenWordIsWrappedInsideBody() throws IOException {
+        Path file = directory.resolve("word.pdf");
+        renderer.render(participation("X".repeat(400) + "FINMOT", "Nantes"), AttestationType.PRESENCE, null, null, file);
+
+        String text = extractText(file).replace("\n", "");
+        assertThat(text).contains("FINMOT", "Lieu : Nantes", "Fait à");
+    }
+
+    private Participation participation(String title, String location) {
+        Session session = Session.builder()
+                .formation(Formation.builder().title(title).build())
+                .startDate(LocalDate.of(2025, 3, 10))
+                .endDate(LocalDate.of(2025, 3, 14))
+                .location(location)
+                .build();
+        return Participation.builder()
+                .id(1L)
+                .user(User.builder().firstname("Camille").lastname("Martin").build())
+                .session(session)
+                .build();
+    }
+
+    private int pageCount(Path file) throws IOException {
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(file.toString()))) {
+            return pdf.getNumberOfPages();
+        }
+    }
+
+    private String extractText(Path file) throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(file.toString()))) {
+            for (int page = 1; page <= pdf.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(pdf.getPage(page))).append('\n');
+            }
+        }
+        return text.toString();
+    }
+}
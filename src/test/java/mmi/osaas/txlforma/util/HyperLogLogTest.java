@@ -0,0 +1,72 @@
+package mmi.osaas.txlforma.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HyperLogLogTest {
+
+    // Erreur standard 1.04 / sqrt(2^12) ≈ 1.6 %, on tolère trois écarts-types
+    private static final double MAX_RELATIVE_ERROR = 0.05;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 100_000, 1_000_000})
+    void estimateStaysWithinErrorBound(int distinct) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long value = 0; value < distinct; value++) {
+            sketch.add(value);
+        }
+
+        double relativeError = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+        assertThat(relativeError).isLessThan(MAX_RELATIVE_ERROR);
+    }
+
+    @Test
+    void duplicatesDoNotChangeEstimate() {
+        HyperLogLog once = new HyperLogLog();
+        HyperLogLog twice = new HyperLogLog();
+        for (long value = 0; value < 10_000; value++) {
+            once.add(value);
+            twice.add(value);
+            twice.add(value);
+        }
+
+        assertThat(twice.estimate()).isEqualTo(once.estimate());
+    }
+
+    @Test
+    void mergeEqualsUnion() {
+        HyperLogLog left = new HyperLogLog();
+        HyperLogLog right = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (long value = 0; value < 60_000; value++) {
+            left.add(value);
+            union.add(value);
+        }
+        for (long value = 40_000; value < 100_000; value++) {
+            right.add(value);
+            union.add(value);
+        }
+
+        left.merge(right);
+
+        assertThat(left.estimate()).isEqualTo(union.estimate());
+        double relativeError = Math.abs(left.estimate() - 100_000) / 100_000.0;
+        assertThat(relativeError).isLessThan(MAX_RELATIVE_ERROR);
+    }
+
+    @Test
+    void mergeWithEmptySketchIsIdentity() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long value = 0; value < 5_000; value++) {
+            sketch.add(value);
+        }
+        long before = sketch.estimate();
+
+        sketch.merge(new HyperLogLog());
+
+        assertThat(sketch.estimate()).isEqualTo(before);
+    }
+}